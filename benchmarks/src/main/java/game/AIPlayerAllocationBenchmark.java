@@ -0,0 +1,90 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AIPlayerAllocationBenchmark class times AIPlayer.getGameMove in the default mode
+ * on positions recorded from games against a random opponent, cycling through them one
+ * per operation. Run it with -prof gc to see the bytes allocated per move, which should
+ * be 0; AIPlayerAllocationTest checks the same with the JVM's allocation counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIPlayerAllocationBenchmark {
+    private static final int NUM_GAMES = 2000;
+
+    // Each position is the cells occupied by CROSS and CIRCLE in play order, followed
+    // by the last human move
+    private int[][] positions;
+    private GameState gameState;
+    private AIPlayer aiPlayer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ArrayList<int[]> recorded = new ArrayList<>();
+        Random random = new Random(7);
+        gameState = new GameState();
+        aiPlayer = new AIPlayer(gameState);
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            int[] moves = new int[9];
+            int numMoves = 0;
+            while (!gameState.getGameEnded()) {
+                int cell = pickCell(gameState.getMask(Player.UNSET), random);
+                gameState.setMove(GridNumber.of(cell / 3, cell % 3));
+                moves[numMoves++] = cell;
+                if (gameState.getGameEnded()) {
+                    break;
+                }
+                recorded.add(Arrays.copyOf(moves, numMoves));
+                GridNumber aiMove = aiPlayer.getGameMove(GridNumber.of(cell / 3, cell % 3));
+                gameState.setMove(aiMove);
+                moves[numMoves++] = aiMove.getRow() * 3 + aiMove.getColumn();
+            }
+        }
+        positions = recorded.toArray(new int[0][]);
+    }
+
+    private static int pickCell(int free, Random random) {
+        int idx = random.nextInt(Integer.bitCount(free));
+        for (int m = free; ; m &= m - 1) {
+            if (idx-- == 0) {
+                return Integer.numberOfTrailingZeros(m);
+            }
+        }
+    }
+
+    // Sets up the next recorded position and asks for the AI's answer
+    @Benchmark
+    public GridNumber getGameMove() {
+        int[] position = positions[next];
+        next = next + 1 < positions.length ? next + 1 : 0;
+        gameState.initGame();
+        Player player = Player.CROSS;
+        for (int cell : position) {
+            gameState.setOccupied(cell, player);
+            player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+        }
+        int last = position[position.length - 1];
+        return aiPlayer.getGameMove(GridNumber.of(last / 3, last % 3));
+    }
+}
@@ -0,0 +1,85 @@
+package game;
+
+/**
+ * The ArrayGameState class keeps the original Player[][] occupancy and win detection
+ * of GameState as a baseline for benchmarking.
+ */
+class ArrayGameState {
+    private Player[][] occupied;
+
+    ArrayGameState() {
+        occupied = new Player[3][3];
+        clearOccupiedState();
+    }
+
+    void clearOccupiedState() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                occupied[i][j] = Player.UNSET;
+            }
+        }
+    }
+
+    void unSetOccupied(GridNumber gridNum) {
+        occupied[gridNum.getRow()][gridNum.getColumn()] = Player.UNSET;
+    }
+
+    void setOccupied(GridNumber gridNum, Player player) {
+        occupied[gridNum.getRow()][gridNum.getColumn()] = player;
+    }
+
+    Player getOccupiedBy(GridNumber gridNum) {
+        return occupied[gridNum.getRow()][gridNum.getColumn()];
+    }
+
+    private boolean checkComboForWin(Player player, Player m1, Player m2, Player m3) {
+        return player == m1 && player == m2 && player == m3;
+    }
+
+    private boolean getPlayerHasDiagWin(Player player) {
+        return checkComboForWin(player, occupied[0][0], occupied[1][1], occupied[2][2]) ||
+                checkComboForWin(player, occupied[0][2], occupied[1][1], occupied[2][0]);
+    }
+
+    private boolean getPlayerHasColWin(Player player) {
+        for (int j = 0; j < 3; j++) {
+            if (checkComboForWin(player, occupied[0][j], occupied[1][j], occupied[2][j])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean getPlayerHasRowWin(Player player) {
+        for (int i = 0; i < 3; i++) {
+            if (checkComboForWin(player, occupied[i][0], occupied[i][1], occupied[i][2])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean getPlayerHasWin(Player player) {
+        return getPlayerHasRowWin(player) || getPlayerHasColWin(player) || getPlayerHasDiagWin(player);
+    }
+
+    boolean getIsFull() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (occupied[i][j] == Player.UNSET) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    Player getWinner() {
+        if (getPlayerHasWin(Player.CIRCLE)) {
+            return Player.CIRCLE;
+        } else if (getPlayerHasWin(Player.CROSS)) {
+            return Player.CROSS;
+        }
+        return Player.UNSET;
+    }
+}
@@ -0,0 +1,68 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BatchEvaluatorBenchmark class measures how many positions per second a
+ * BatchEvaluator scores, on a batch of positions from random games.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchEvaluatorBenchmark {
+    private static final int BATCH_SIZE = 1 << 20;
+
+    @Param({"TABLE", "RULES"})
+    public String mode;
+
+    private BatchEvaluator evaluator;
+    private int[] positions;
+    private byte[] moves;
+    private byte[] values;
+
+    @Setup
+    public void setUp() {
+        evaluator = new BatchEvaluator(AIPlayer.Mode.valueOf(mode));
+        positions = new int[BATCH_SIZE];
+        moves = new byte[BATCH_SIZE];
+        values = new byte[BATCH_SIZE];
+        // Take a random number of random moves from the empty board
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Position position = Position.EMPTY;
+            int numMoves = random.nextInt(Bitboard.NUM_CELLS);
+            for (int k = 0; k < numMoves && !position.isEnded(); k++) {
+                int free = position.getMask(Player.UNSET);
+                for (int skip = random.nextInt(Integer.bitCount(free)); skip > 0; skip--) {
+                    free &= free - 1;
+                }
+                position = position.apply(Integer.numberOfTrailingZeros(free));
+            }
+            positions[i] = position.toInt();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public byte[] evaluate() {
+        evaluator.evaluate(positions, moves, values);
+        return moves;
+    }
+}
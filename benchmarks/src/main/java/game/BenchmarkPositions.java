@@ -0,0 +1,28 @@
+package game;
+
+/**
+ * The BenchmarkPositions class sets up a GameState from a 9 character board string,
+ * row by row, where 'X' is CROSS, 'O' is CIRCLE and '.' is a free location.
+ */
+final class BenchmarkPositions {
+    private BenchmarkPositions() {
+    }
+
+    static GameState create(String board) {
+        GameState gameState = new GameState();
+        load(gameState, board);
+        return gameState;
+    }
+
+    static void load(GameState gameState, String board) {
+        gameState.initGame();
+        for (int cell = 0; cell < board.length(); cell++) {
+            char piece = board.charAt(cell);
+            if (piece == 'X') {
+                gameState.setOccupied(cell, Player.CROSS);
+            } else if (piece == 'O') {
+                gameState.setOccupied(cell, Player.CIRCLE);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package game;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BoardSizeBenchmark class measures how the move cost of LineSearchStrategy grows
+ * with the board size. On each board it records the positions of games where the first
+ * player makes a random move one time in four, so the games do not all follow the same
+ * line, and then times the AI's move on them, one position per operation. The nodes
+ * searched are counted alongside. Run it with -bm sample for the latency percentiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardSizeBenchmark {
+    private static final int NUM_GAMES = 10;
+
+    // The board size and the win length
+    @Param({"3,3", "4,4", "5,4", "7,5", "9,5", "15,5"})
+    public String board;
+
+    // Each position is the cells played, CROSS first, before a move of the AI
+    private int[][] positions;
+    private GameState gameState;
+    private AIPlayer aiPlayer;
+    private LineSearchStrategy strategy;
+    private int next;
+
+    /**
+     * The Counters class reports the nodes the line search searched in an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String[] sizes = board.split(",");
+        int size = Integer.parseInt(sizes[0]);
+        gameState = new GameState(size, Integer.parseInt(sizes[1]));
+        aiPlayer = new AIPlayer(gameState, AIPlayer.Mode.LINE_SEARCH);
+        strategy = (LineSearchStrategy) aiPlayer.getStrategy();
+        ArrayList<int[]> recorded = new ArrayList<>();
+        Random random = new Random(5);
+        int[] cells = new int[size * size];
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            while (!gameState.getGameEnded()) {
+                GridNumber move;
+                if (gameState.getPlayerToMove() == Player.CROSS && random.nextInt(4) == 0) {
+                    int cell;
+                    do {
+                        cell = random.nextInt(size * size);
+                    } while (gameState.isOccupied(cell));
+                    move = gameState.getGeometry().getLocation(cell);
+                } else {
+                    recorded.add(Arrays.copyOf(cells, gameState.getMoves(cells)));
+                    move = aiPlayer.getGameMove(GridNumber.getInvalidObject());
+                }
+                gameState.setMove(move);
+            }
+        }
+        positions = recorded.toArray(new int[0][]);
+    }
+
+    // Sets up the next recorded position and asks for the AI's move
+    @Benchmark
+    public GridNumber getMove(Counters counters) {
+        int[] position = positions[next];
+        next = next + 1 < positions.length ? next + 1 : 0;
+        gameState.initGame();
+        for (int cell : position) {
+            gameState.setMove(cell);
+        }
+        long nodesBefore = strategy.getNumNodes();
+        GridNumber move = aiPlayer.getGameMove(GridNumber.getInvalidObject());
+        counters.nodes += strategy.getNumNodes() - nodesBefore;
+        return move;
+    }
+}
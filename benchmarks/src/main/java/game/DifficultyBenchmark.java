@@ -0,0 +1,89 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DifficultyBenchmark class samples the latency of the moves of every
+ * AIPlayer.Difficulty below PERFECT. For each level it records the positions of games
+ * the level plays as O against a random X, and then times the level's move on them,
+ * one position per operation, so the percentiles and the maximum can be compared with
+ * the time budget of the level. DifficultyTest checks the budgets and the results of
+ * the levels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DifficultyBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public String level;
+
+    // The board size and the win length
+    @Param({"3,3", "15,5"})
+    public String board;
+
+    // Each position is the cells played, CROSS first, before a move of the level
+    private int[][] positions;
+    private GameState gameState;
+    private AIPlayer player;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] sizes = board.split(",");
+        int size = Integer.parseInt(sizes[0]);
+        gameState = new GameState(size, Integer.parseInt(sizes[1]));
+        AIPlayer.Difficulty difficulty = AIPlayer.Difficulty.valueOf(level);
+        player = new AIPlayer(gameState, AIPlayer.Mode.LINE_SEARCH);
+        player.setDifficulty(difficulty);
+        player.setStrategy(new BudgetedStrategy(gameState, difficulty, new Random(3)));
+        AIPlayer opponent = new AIPlayer(gameState, AIPlayer.Mode.RANDOM);
+        opponent.setStrategy(new RandomStrategy(gameState, new Random(1)));
+        ArrayList<int[]> recorded = new ArrayList<>();
+        int[] cells = new int[size * size];
+        int numGames = gameState.isStandard() ? 100 : 2;
+        for (int g = 0; g < numGames; g++) {
+            gameState.initGame();
+            GridNumber lastMove = GridNumber.getInvalidObject();
+            while (!gameState.getGameEnded()) {
+                if (gameState.getPlayerToMove() == Player.CIRCLE) {
+                    recorded.add(Arrays.copyOf(cells, gameState.getMoves(cells)));
+                    lastMove = player.getGameMove(lastMove);
+                } else {
+                    lastMove = opponent.getGameMove(lastMove);
+                }
+                gameState.setMove(lastMove);
+            }
+        }
+        positions = recorded.toArray(new int[0][]);
+    }
+
+    // Sets up the next recorded position and asks for the level's move
+    @Benchmark
+    public GridNumber getMove() {
+        int[] position = positions[next];
+        next = next + 1 < positions.length ? next + 1 : 0;
+        gameState.initGame();
+        for (int cell : position) {
+            gameState.setMove(cell);
+        }
+        return player.getGameMove(GridNumber.getInvalidObject());
+    }
+}
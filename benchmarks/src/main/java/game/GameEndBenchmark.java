@@ -0,0 +1,57 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GameEndBenchmark class times GameState.getWinner and getGameEnded over a mix of
+ * ongoing, won and drawn positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEndBenchmark {
+    private static final String[] BOARDS = {
+            ".........", "X...O...X", "XOXXOO.X.", // ongoing
+            "XXXOO....", "X.OXO.O.X",             // X wins, O wins
+            "XOXXOOOXX"                           // drawn
+    };
+
+    private GameState[] gameStates;
+
+    @Setup
+    public void setUp() {
+        gameStates = new GameState[BOARDS.length];
+        for (int i = 0; i < BOARDS.length; i++) {
+            gameStates[i] = BenchmarkPositions.create(BOARDS[i]);
+        }
+    }
+
+    @Benchmark
+    public void getWinner(Blackhole blackhole) {
+        for (GameState gameState : gameStates) {
+            blackhole.consume(gameState.getWinner());
+        }
+    }
+
+    @Benchmark
+    public void getGameEnded(Blackhole blackhole) {
+        for (GameState gameState : gameStates) {
+            blackhole.consume(gameState.getGameEnded());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameFeedBenchmark class runs a GameFeed at full speed, without JavaFX, and
+ * consumes its MoveEventQueue the way the Dashboard does, once per 60 Hz frame. For
+ * each number of boards it prints the games, moves and events per second, the share of
+ * events dropped, the cells changed per frame and the p50, p99 and maximum time spent
+ * draining and applying the events of a frame. It stays a plain program because it
+ * paces itself in real time like the Dashboard; GameFeedTest checks the feed's events
+ * and counters and that a full queue is applied within a 60 Hz frame.
+ *
+ * By default every board moves every 100 ms, as in the Dashboard. With --move-millis=0
+ * the games run flat out and the queue drops most events; on a machine with fewer cores
+ * than feed threads plus one, the frame times then include the time the consumer waits
+ * for a core.
+ *
+ * Usage: GameFeedBenchmark [--boards=N,N,...] [--seconds=N] [--threads=N]
+ *                          [--move-millis=N] [--queue=N] [--size=N] [--win=K]
+ */
+public class GameFeedBenchmark {
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return named;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> named = parseArgs(args);
+        String[] boardCounts = named.getOrDefault("boards", "100,500,1000").split(",");
+        int seconds = Integer.parseInt(named.getOrDefault("seconds", "5"));
+        int numThreads = Integer.parseInt(named.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long moveMillis = Long.parseLong(named.getOrDefault("move-millis", "100"));
+        int capacity = Integer.parseInt(named.getOrDefault("queue", String.valueOf(MoveEventQueue.DEFAULT_CAPACITY)));
+        int size = Integer.parseInt(named.getOrDefault("size", "3"));
+        int winLength = Integer.parseInt(named.getOrDefault("win", String.valueOf(size)));
+
+        System.out.printf("RANDOM vs RULES on %dx%d (%d in a row), %d threads, %d ms per move, queue of %d, %d s each%n",
+                size, size, winLength, numThreads, moveMillis, capacity, seconds);
+        System.out.printf("%7s %10s %11s %11s %8s %12s %10s %10s %10s%n", "boards", "games/s", "moves/s",
+                "events/s", "dropped", "cells/frame", "p50 ms", "p99 ms", "max ms");
+        for (String boardCount : boardCounts) {
+            int numBoards = Integer.parseInt(boardCount);
+            // The last state seen of every cell of every board, as BoardCanvas keeps it
+            Player[][] shown = new Player[numBoards][size * size];
+            LatencyHistogram frameTimes = new LatencyHistogram();
+            List<MoveEvent> batch = new ArrayList<>();
+            long numCellsChanged = 0;
+            int numFrames = 0;
+            MoveEventQueue queue = new MoveEventQueue(capacity);
+            GameFeed feed = new GameFeed(numBoards, numThreads, AIPlayer.Mode.RANDOM, AIPlayer.Mode.RULES, size,
+                    winLength, 1, moveMillis, queue);
+            long start = System.nanoTime();
+            feed.start();
+            try {
+                for (long frame = start + FRAME_NANOS; frame < start + seconds * 1_000_000_000L;
+                        frame += FRAME_NANOS) {
+                    long sleepNanos = frame - System.nanoTime();
+                    if (sleepNanos > 0) {
+                        Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                    }
+                    long frameStart = System.nanoTime();
+                    batch.clear();
+                    queue.drainTo(batch, queue.getCapacity());
+                    for (MoveEvent event : batch) {
+                        Player[] cells = shown[event.getBoard()];
+                        for (int cell = 0; cell < event.getNumCells(); cell++) {
+                            Player player = event.getOccupiedBy(cell);
+                            if (cells[cell] != player) {
+                                cells[cell] = player;
+                                numCellsChanged++;
+                            }
+                        }
+                    }
+                    frameTimes.record(System.nanoTime() - frameStart);
+                    numFrames++;
+                }
+            } finally {
+                feed.close();
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%7d %10.0f %11.0f %11.0f %7.1f%% %12.1f %10.3f %10.3f %10.3f%n", numBoards,
+                    feed.getNumGames() / elapsed, feed.getNumMoves() / elapsed, queue.getNumOffered() / elapsed,
+                    100.0 * queue.getNumDropped() / Math.max(1, queue.getNumOffered()),
+                    (double) numCellsChanged / numFrames, frameTimes.getValueAtPercentile(50) / 1e6,
+                    frameTimes.getValueAtPercentile(99) / 1e6, frameTimes.getMax() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The GameServerLoadTest class plays games against a GameServer over localhost at
+ * increasing numbers of open sessions and prints the p50, p99 and maximum round trip
+ * latency of a MOVE command and the moves per second at each session count.
+ *
+ * The sessions of a run are spread over a number of connections, each driven by its own
+ * client thread, which plays a random free cell in its sessions in turn and resets a
+ * session when its game ends. Without --port a server is started in this JVM on a free
+ * port.
+ *
+ * Usage: GameServerLoadTest [--host=NAME] [--port=N] [--sessions=N,N,...]
+ *                           [--connections=N] [--moves=N] [--size=N] [--win=K]
+ * where --moves is the number of moves played per session count.
+ */
+public class GameServerLoadTest {
+    private final String host;
+    private final int port;
+    private final int size;
+    private final int winLength;
+
+    GameServerLoadTest(String aHost, int aPort, int aSize, int aWinLength) {
+        host = aHost;
+        port = aPort;
+        size = aSize;
+        winLength = aWinLength;
+    }
+
+    /**
+     * The Client class drives a share of the sessions over one connection and keeps a
+     * copy of their boards to pick legal moves.
+     */
+    private class Client {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        private final Random random;
+        private final long[] ids;
+        private final boolean[][] occupied;
+        private final int[] freeCells = new int[size * size];
+
+        Client(int numSessions, long seed) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+            random = new Random(seed);
+            ids = new long[numSessions];
+            occupied = new boolean[numSessions][size * size];
+            for (int i = 0; i < numSessions; i++) {
+                ids[i] = Long.parseLong(call("NEW " + size + " " + winLength)[1]);
+            }
+        }
+
+        private String[] call(String command) throws IOException {
+            out.write(command);
+            out.write('\n');
+            out.flush();
+            String response = in.readLine();
+            if (response == null || !response.startsWith("OK")) {
+                throw new IOException(command + " failed: " + response);
+            }
+            return response.split(" ");
+        }
+
+        void play(int numMoves, LatencyHistogram latency) throws IOException {
+            for (int m = 0; m < numMoves; m++) {
+                int i = m % ids.length;
+                boolean[] board = occupied[i];
+                int numFree = 0;
+                for (int cell = 0; cell < board.length; cell++) {
+                    if (!board[cell]) {
+                        freeCells[numFree++] = cell;
+                    }
+                }
+                int cell = freeCells[random.nextInt(numFree)];
+                long start = System.nanoTime();
+                String[] response = call("MOVE " + ids[i] + " " + cell / size + " " + cell % size);
+                latency.record(System.nanoTime() - start);
+                board[cell] = true;
+                if (!response[1].equals("-")) {
+                    board[Integer.parseInt(response[1]) * size + Integer.parseInt(response[2])] = true;
+                }
+                if (!response[3].equals("PLAYING")) {
+                    call("RESET " + ids[i]);
+                    Arrays.fill(board, false);
+                }
+            }
+        }
+
+        void close() throws IOException {
+            try {
+                for (long id : ids) {
+                    call("CLOSE " + id);
+                }
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    // Plays numMoves moves in total over numSessions sessions and prints the latencies if report is set
+    void run(int numSessions, int numConnections, int numMoves, boolean report) throws Exception {
+        int connections = Math.min(numSessions, numConnections);
+        List<Client> clients = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            int share = numSessions / connections + (c < numSessions % connections ? 1 : 0);
+            clients.add(new Client(share, c));
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < connections; c++) {
+                Client client = clients.get(c);
+                int share = numMoves / connections + (c < numMoves % connections ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    client.play(share, latency);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (report) {
+                System.out.printf("%8d %11d %10d %10.1f %10.1f %10.1f %12.0f%n", numSessions, connections,
+                        latency.getCount(), latency.getValueAtPercentile(50) / 1e3,
+                        latency.getValueAtPercentile(99) / 1e3, latency.getMax() / 1e3,
+                        latency.getCount() * 1e9 / elapsed);
+            }
+        } finally {
+            executor.shutdown();
+            for (Client client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return named;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> named = parseArgs(args);
+        String host = named.getOrDefault("host", "localhost");
+        String[] sessionCounts = named.getOrDefault("sessions", "1,10,100,1000,10000").split(",");
+        int numConnections = Integer.parseInt(named.getOrDefault("connections", "32"));
+        int numMoves = Integer.parseInt(named.getOrDefault("moves", "50000"));
+        int size = Integer.parseInt(named.getOrDefault("size", "3"));
+        int winLength = Integer.parseInt(named.getOrDefault("win", String.valueOf(size)));
+
+        GameServer server = null;
+        int port;
+        if (named.containsKey("port")) {
+            port = Integer.parseInt(named.get("port"));
+        } else {
+            server = new GameServer(0, SessionManager.DEFAULT_MOVE_MILLIS, Runtime.getRuntime().availableProcessors());
+            port = server.getPort();
+            GameServer started = server;
+            Thread thread = new Thread(() -> {
+                try {
+                    started.serve();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "game-server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        GameServerLoadTest test = new GameServerLoadTest(host, port, size, winLength);
+        System.out.printf("MOVE round trips on %dx%d (%d in a row) against %s:%d, latencies in us%n", size, size,
+                winLength, host, port);
+        System.out.printf("%8s %11s %10s %10s %10s %10s %12s%n", "sessions", "connections", "moves", "p50", "p99",
+                "max", "moves/s");
+        // Warm up both ends before measuring
+        test.run(numConnections, numConnections, numMoves / 5, false);
+        for (String count : sessionCounts) {
+            test.run(Integer.parseInt(count), numConnections, numMoves, true);
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+}
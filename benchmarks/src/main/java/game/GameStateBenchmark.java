@@ -0,0 +1,102 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GameStateBenchmark class compares the bitboard GameState against the original
+ * array based occupancy (ArrayGameState) by replaying the same random games on both and
+ * calling getWinner and getIsFull after every placement. The score is the time per game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private static final int NUM_GAMES = 4096;
+
+    @Param({"bitboard", "array"})
+    public String occupancy;
+
+    private GridNumber[][] games;
+    private GameState bitboard;
+    private ArrayGameState array;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        games = new GridNumber[NUM_GAMES][];
+        for (int g = 0; g < NUM_GAMES; g++) {
+            GridNumber[] cells = new GridNumber[9];
+            for (int i = 0; i < 9; i++) {
+                cells[i] = GridNumber.of(i / 3, i % 3);
+            }
+            for (int i = 8; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                GridNumber tmp = cells[i];
+                cells[i] = cells[j];
+                cells[j] = tmp;
+            }
+            games[g] = cells;
+        }
+        bitboard = new GameState();
+        array = new ArrayGameState();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_GAMES)
+    public int replay() {
+        return occupancy.equals("bitboard") ? replayBitboard() : replayArray();
+    }
+
+    private int replayBitboard() {
+        int checksum = 0;
+        for (GridNumber[] game : games) {
+            bitboard.initGame();
+            Player player = Player.CROSS;
+            for (GridNumber move : game) {
+                bitboard.setOccupied(move, player);
+                Player winner = bitboard.getWinner();
+                if (winner != Player.UNSET || bitboard.getIsFull()) {
+                    checksum += winner.ordinal();
+                    break;
+                }
+                player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+            }
+        }
+        return checksum;
+    }
+
+    private int replayArray() {
+        int checksum = 0;
+        for (GridNumber[] game : games) {
+            array.clearOccupiedState();
+            Player player = Player.CROSS;
+            for (GridNumber move : game) {
+                array.setOccupied(move, player);
+                Player winner = array.getWinner();
+                if (winner != Player.UNSET || array.getIsFull()) {
+                    checksum += winner.ordinal();
+                    break;
+                }
+                player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+            }
+        }
+        return checksum;
+    }
+}
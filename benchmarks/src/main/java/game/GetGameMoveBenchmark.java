@@ -0,0 +1,72 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GetGameMoveBenchmark class times AIPlayer.getGameMove in each mode from
+ * representative positions where the AI (CIRCLE) is to move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetGameMoveBenchmark {
+    @Param({"opening", "forkBlock", "blockThenFork", "nearFull"})
+    public String position;
+
+    @Param({"RULES", "TABLE", "NEGAMAX", "LINE_SEARCH"})
+    public String mode;
+
+    private AIPlayer aiPlayer;
+    private GridNumber humanMove;
+
+    @Setup
+    public void setUp() {
+        String board;
+        int lastMove;
+        switch (position) {
+            case "opening":
+                // The human opened in a corner
+                board = "X........";
+                lastMove = 0;
+                break;
+            case "forkBlock":
+                // The human holds opposite corners and threatens a fork
+                board = "X...O...X";
+                lastMove = 8;
+                break;
+            case "blockThenFork":
+                // The AI has to block the bottom row, which also sets up its own fork
+                board = "OX..O..XX";
+                lastMove = 8;
+                break;
+            default:
+                // Two locations left
+                board = "XOXXOO.X.";
+                lastMove = 7;
+                break;
+        }
+        GameState gameState = BenchmarkPositions.create(board);
+        aiPlayer = new AIPlayer(gameState, AIPlayer.Mode.valueOf(mode));
+        humanMove = GridNumber.of(lastMove / 3, lastMove % 3);
+    }
+
+    @Benchmark
+    public GridNumber getGameMove() {
+        return aiPlayer.getGameMove(humanMove);
+    }
+}
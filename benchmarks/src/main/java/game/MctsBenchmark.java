@@ -0,0 +1,81 @@
+package game;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MctsBenchmark class times one Monte Carlo tree search of a fixed number of
+ * playouts, on the empty 3x3 board and on 15x15 with 5 in a row after three moves,
+ * with 1 or more threads. The playouts are counted alongside, so the counter gives the
+ * playouts per second. On a multi-core machine pass -p threads=1,2,4,... to see how the
+ * search scales. That MCTS never loses to the rule cascade is checked by
+ * MctsStrategyTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MctsBenchmark {
+    private static final long NUM_PLAYOUTS = 4096;
+
+    // The board size and the win length
+    @Param({"3,3", "15,5"})
+    public String board;
+
+    @Param({"1", "2"})
+    public String threads;
+
+    private MctsStrategy mcts;
+
+    /**
+     * The Counters class reports the playouts the search ran in an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long playouts;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            playouts = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String[] sizes = board.split(",");
+        int size = Integer.parseInt(sizes[0]);
+        GameState gameState = new GameState(size, Integer.parseInt(sizes[1]));
+        if (size > Bitboard.SIZE) {
+            int center = size / 2;
+            gameState.setMove(GridNumber.of(center, center));
+            gameState.setMove(GridNumber.of(center, center + 1));
+            gameState.setMove(GridNumber.of(center + 1, center + 1));
+        }
+        // The clock is only a safety net, the playout budget ends the search
+        mcts = new MctsStrategy(gameState, Integer.parseInt(threads), NUM_PLAYOUTS, 60000, 11);
+    }
+
+    @Benchmark
+    public GridNumber getMove(Counters counters) {
+        long playoutsBefore = mcts.getNumPlayouts();
+        GridNumber move = mcts.getMove(GridNumber.getInvalidObject());
+        counters.playouts += mcts.getNumPlayouts() - playoutsBefore;
+        return move;
+    }
+}
@@ -0,0 +1,61 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MoveServiceBenchmark class measures the throughput of one MoveService shared by
+ * several threads, each asking for moves in a different position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MoveServiceBenchmark {
+    private static final String[] BOARDS = {"X........", "X...O...X", "OX..O..XX", "XOXXOO.X."};
+
+    @Param({"RULES", "TABLE", "NEGAMAX"})
+    public String mode;
+
+    private MoveService service;
+    private Position[] positions;
+
+    /**
+     * The Cursor class is the position each thread asks about next.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        service = new MoveService(AIPlayer.Mode.valueOf(mode));
+        positions = new Position[BOARDS.length];
+        for (int i = 0; i < BOARDS.length; i++) {
+            positions[i] = Position.of(BenchmarkPositions.create(BOARDS[i]));
+        }
+    }
+
+    @Benchmark
+    public GridNumber getMove(Cursor cursor) {
+        Position position = positions[cursor.next];
+        cursor.next = (cursor.next + 1) % positions.length;
+        return service.getMove(position);
+    }
+}
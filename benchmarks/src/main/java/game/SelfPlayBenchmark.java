@@ -0,0 +1,53 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SelfPlayBenchmark class measures complete AI-vs-AI games per second. CROSS
+ * plays from the perfect-play table and CIRCLE plays in the benchmarked mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelfPlayBenchmark {
+    @Param({"RULES", "TABLE", "NEGAMAX", "LINE_SEARCH"})
+    public String mode;
+
+    private GameState gameState;
+    private AIPlayer crossPlayer;
+    private AIPlayer circlePlayer;
+
+    @Setup
+    public void setUp() {
+        gameState = new GameState();
+        crossPlayer = new AIPlayer(gameState, AIPlayer.Mode.TABLE);
+        circlePlayer = new AIPlayer(gameState, AIPlayer.Mode.valueOf(mode));
+    }
+
+    @Benchmark
+    public Player playGame() {
+        gameState.initGame();
+        GridNumber lastMove = GridNumber.getInvalidObject();
+        while (!gameState.getGameEnded()) {
+            AIPlayer player = gameState.getPlayerToMove() == Player.CROSS ? crossPlayer : circlePlayer;
+            lastMove = player.getGameMove(lastMove);
+            gameState.setMove(lastMove);
+        }
+        return gameState.getWinner();
+    }
+}
@@ -0,0 +1,112 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The SessionFootprintBenchmark class fills a SessionManager with games of random length
+ * and prints the heap per session while the sessions are live, after evictIdle() has
+ * compacted them and after it has spilled them to a file. It then plays one command on
+ * every session to decode it again and prints the time per session. It stays a plain
+ * program because it measures the heap between garbage collections, which JMH does not
+ * report; SessionManagerTest checks that evicted sessions decode to the same games.
+ *
+ * Usage: SessionFootprintBenchmark [sessions] [size] [win]
+ */
+public class SessionFootprintBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    // Returns the least used heap seen over several garbage collections
+    private static long getUsedHeap() throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, MEMORY.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static void report(String state, SessionManager manager, long used, long baseline, int numSessions) {
+        System.out.printf("%-10s %-16s %10.1f%n", state, Arrays.toString(manager.getNumSessionsByState()),
+                (double) (used - baseline) / numSessions);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int numSessions = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : size;
+        long[] ids = new long[numSessions];
+        byte[][] encoded = new byte[numSessions][];
+        Path spillFile = Files.createTempFile("sessions", ".spill");
+        Random random = new Random(1);
+
+        // Random parts of games, sometimes with undone moves to redo
+        GameState scratch = new GameState(size, winLength);
+        int numCells = scratch.getGeometry().getNumCells();
+        for (int i = 0; i < numSessions; i++) {
+            scratch.initGame();
+            int numMoves = random.nextInt(numCells);
+            for (int m = 0; m < numMoves && !scratch.getGameEnded(); m++) {
+                int cell;
+                do {
+                    cell = random.nextInt(numCells);
+                } while (scratch.isOccupied(cell));
+                scratch.setMove(cell);
+            }
+            for (int u = random.nextInt(3); u > 0; u--) {
+                scratch.undo();
+            }
+            encoded[i] = SessionCodec.encode(scratch);
+        }
+        int[] cells = new int[numCells];
+
+        long baseline = getUsedHeap();
+        try (SessionManager manager = new SessionManager()) {
+            manager.setEviction(0, 2000, spillFile);
+            for (int i = 0; i < numSessions; i++) {
+                ids[i] = manager.create(size, winLength);
+                GameState game = SessionCodec.decode(encoded[i]);
+                int numMoves = game.getRecordedMoves(cells);
+                int numUndone = game.getNumUndone();
+                manager.withGame(ids[i], gameState -> {
+                    for (int m = 0; m < numMoves; m++) {
+                        gameState.setMove(cells[m]);
+                    }
+                    for (int u = 0; u < numUndone; u++) {
+                        gameState.undo();
+                    }
+                    return null;
+                });
+            }
+            System.out.printf("%d sessions of %dx%d (%d in a row), bytes of heap per session%n", numSessions,
+                    size, size, winLength);
+            System.out.printf("%-10s %-16s %10s%n", "state", "live/compact/spilled", "bytes");
+            report("live", manager, getUsedHeap(), baseline, numSessions);
+
+            // Sessions created first may have been idle long enough to spill already
+            for (long id : ids) {
+                manager.withGame(id, gameState -> null);
+            }
+            manager.evictIdle();
+            report("compacted", manager, getUsedHeap(), baseline, numSessions);
+
+            Thread.sleep(2000);
+            manager.evictIdle();
+            report("spilled", manager, getUsedHeap(), baseline, numSessions);
+            System.out.printf("spill file: %.1f bytes per session%n", (double) Files.size(spillFile) / numSessions);
+
+            long start = System.nanoTime();
+            for (long id : ids) {
+                manager.withGame(id, gameState -> null);
+            }
+            System.out.printf("rehydrated %d sessions in %.1f ns each%n", numSessions,
+                    (double) (System.nanoTime() - start) / numSessions);
+            report("live", manager, getUsedHeap(), baseline, numSessions);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package game;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The StrategyBenchmark class times each AIPlayer mode on the same positions, recorded
+ * from games against a random opponent, one position per operation. For the negamax
+ * strategy the nodes searched are counted alongside, so nodes per move and nodes per
+ * second can be read off the results. Monte Carlo search spends a fixed budget per
+ * move and is timed by MctsBenchmark instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+    private static final int NUM_GAMES = 2000;
+
+    @Param({"RULES", "TABLE", "NEGAMAX", "LINE_SEARCH", "RANDOM", "TABLEBASE"})
+    public String mode;
+
+    // Each position is the cells played, CROSS first, up to and including the last
+    // human move
+    private int[][] positions;
+    private GameState gameState;
+    private AIPlayer aiPlayer;
+    private NegamaxStrategy negamax;
+    private int next;
+
+    /**
+     * The Counters class reports the nodes the negamax strategy searched in an iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ArrayList<int[]> recorded = new ArrayList<>();
+        Random random = new Random(3);
+        gameState = new GameState();
+        AIPlayer recorder = new AIPlayer(gameState, AIPlayer.Mode.TABLE);
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            int[] moves = new int[9];
+            int numMoves = 0;
+            while (!gameState.getGameEnded()) {
+                int free = gameState.getMask(Player.UNSET);
+                int idx = random.nextInt(Integer.bitCount(free));
+                int cell = 0;
+                for (int m = free; idx >= 0; m &= m - 1, idx--) {
+                    cell = Integer.numberOfTrailingZeros(m);
+                }
+                gameState.setMove(GridNumber.of(cell / 3, cell % 3));
+                moves[numMoves++] = cell;
+                if (gameState.getGameEnded()) {
+                    break;
+                }
+                recorded.add(Arrays.copyOf(moves, numMoves));
+                GridNumber aiMove = recorder.getGameMove(GridNumber.of(cell / 3, cell % 3));
+                gameState.setMove(aiMove);
+                moves[numMoves++] = Bitboard.getCell(aiMove);
+            }
+        }
+        positions = recorded.toArray(new int[0][]);
+        aiPlayer = new AIPlayer(gameState, AIPlayer.Mode.valueOf(mode));
+        negamax = aiPlayer.getStrategy() instanceof NegamaxStrategy ? (NegamaxStrategy) aiPlayer.getStrategy() : null;
+    }
+
+    // Sets up the next recorded position and asks for the AI's answer
+    @Benchmark
+    public GridNumber getMove(Counters counters) {
+        int[] position = positions[next];
+        next = next + 1 < positions.length ? next + 1 : 0;
+        gameState.initGame();
+        Player player = Player.CROSS;
+        for (int cell : position) {
+            gameState.setOccupied(GridNumber.of(cell / 3, cell % 3), player);
+            player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+        }
+        int last = position[position.length - 1];
+        if (negamax == null) {
+            return aiPlayer.getGameMove(GridNumber.of(last / 3, last % 3));
+        }
+        long nodesBefore = negamax.getNumNodes();
+        GridNumber move = aiPlayer.getGameMove(GridNumber.of(last / 3, last % 3));
+        counters.nodes += negamax.getNumNodes() - nodesBefore;
+        return move;
+    }
+}
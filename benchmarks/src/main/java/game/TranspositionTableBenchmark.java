@@ -0,0 +1,94 @@
+package game;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TranspositionTableBenchmark class plays random games and caches the perfect-play
+ * evaluation of every position in a TranspositionTable, keyed by the canonical or by the
+ * raw position. The score is games per second; the probes that hit and missed are
+ * counted alongside, so their ratio gives the hit rate of each keying.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranspositionTableBenchmark {
+    private static final int CAPACITY = 1 << 13;
+
+    @Param({"canonical", "raw"})
+    public String keys;
+
+    private PerfectPlayTable perfectPlay;
+    private TranspositionTable table;
+    private GameState gameState;
+    private Random random;
+
+    /**
+     * The Counters class reports the probes of an iteration that hit and missed.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        perfectPlay = PerfectPlayTable.getInstance();
+        table = new TranspositionTable(CAPACITY, keys.equals("canonical"));
+        gameState = new GameState();
+        random = new Random(11);
+    }
+
+    private static int pickCell(int free, Random random) {
+        int idx = random.nextInt(Integer.bitCount(free));
+        for (int m = free; ; m &= m - 1) {
+            if (idx-- == 0) {
+                return Integer.numberOfTrailingZeros(m);
+            }
+        }
+    }
+
+    @Benchmark
+    public int playGame(Counters counters) {
+        int checksum = 0;
+        gameState.initGame();
+        while (!gameState.getGameEnded()) {
+            int index = gameState.getPositionIndex();
+            int entry = table.probe(gameState);
+            if (entry == TranspositionTable.MISS) {
+                counters.misses++;
+                table.store(gameState, perfectPlay.getMove(index), perfectPlay.getValue(index));
+            } else {
+                counters.hits++;
+                checksum += entry;
+            }
+            gameState.setMove(pickCell(gameState.getMask(Player.UNSET), random));
+        }
+        return checksum;
+    }
+}
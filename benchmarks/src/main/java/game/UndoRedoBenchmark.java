@@ -0,0 +1,57 @@
+package game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The UndoRedoBenchmark class times undoing a whole drawn game move by move and
+ * redoing it again, as well as replaying it from scratch with setMove.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UndoRedoBenchmark {
+    // A drawn game, CROSS first
+    private static final int[] GAME = {4, 0, 2, 6, 3, 5, 1, 7, 8};
+
+    private GameState gameState;
+
+    @Setup
+    public void setUp() {
+        gameState = new GameState();
+        replay();
+    }
+
+    @Benchmark
+    public GameState undoRedo() {
+        while (gameState.canUndo()) {
+            gameState.undo();
+        }
+        while (gameState.canRedo()) {
+            gameState.redo();
+        }
+        return gameState;
+    }
+
+    @Benchmark
+    public GameState replay() {
+        gameState.initGame();
+        for (int cell : GAME) {
+            gameState.setMove(GridNumber.of(cell / 3, cell % 3));
+        }
+        return gameState;
+    }
+}
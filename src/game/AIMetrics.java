@@ -0,0 +1,213 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * The AIMetrics class collects counters of the AI players of the JVM: which rule of
+ * the RuleStrategy cascade picked each move and how long the move took, how many trial
+ * placements blocking two forks needed, and a latency histogram of getGameMove per
+ * AIPlayer.Mode. All counters are lock free.
+ *
+ * Collection is off unless the system property tictactoe.metrics is true, and can be
+ * switched at runtime with setEnabled() or over JMX. When it is off the hot paths only
+ * read one volatile flag.
+ */
+final class AIMetrics {
+    static final String OBJECT_NAME = "game:type=AIMetrics";
+
+    private static final RuleStrategy.Rule[] RULES = RuleStrategy.Rule.values();
+    private static final AIPlayer.Mode[] MODES = AIPlayer.Mode.values();
+
+    private static volatile boolean enabled = Boolean.getBoolean("tictactoe.metrics");
+
+    private static final LongAdder[] RULE_HITS = new LongAdder[RULES.length];
+    private static final LatencyHistogram[] RULE_LATENCIES = new LatencyHistogram[RULES.length];
+    private static final LatencyHistogram[] MOVE_LATENCIES = new LatencyHistogram[MODES.length];
+    private static final LatencyHistogram ALL_MOVE_LATENCIES = new LatencyHistogram();
+    private static final LongAdder TWO_FORK_TRIALS = new LongAdder();
+
+    static {
+        for (int i = 0; i < RULES.length; i++) {
+            RULE_HITS[i] = new LongAdder();
+            RULE_LATENCIES[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < MODES.length; i++) {
+            MOVE_LATENCIES[i] = new LatencyHistogram();
+        }
+    }
+
+    private AIMetrics() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void setEnabled(boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    // Counts a move picked by rule after startNanos, see System.nanoTime()
+    static void recordRule(RuleStrategy.Rule rule, long startNanos) {
+        RULE_HITS[rule.ordinal()].increment();
+        RULE_LATENCIES[rule.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    static void recordTwoForkTrials(int numTrials) {
+        TWO_FORK_TRIALS.add(numTrials);
+    }
+
+    static void recordMove(AIPlayer.Mode mode, long nanos) {
+        MOVE_LATENCIES[mode.ordinal()].record(nanos);
+        ALL_MOVE_LATENCIES.record(nanos);
+    }
+
+    static long getRuleHits(RuleStrategy.Rule rule) {
+        return RULE_HITS[rule.ordinal()].sum();
+    }
+
+    static LatencyHistogram getRuleLatency(RuleStrategy.Rule rule) {
+        return RULE_LATENCIES[rule.ordinal()];
+    }
+
+    static long getTwoForkTrials() {
+        return TWO_FORK_TRIALS.sum();
+    }
+
+    static LatencyHistogram getMoveLatency(AIPlayer.Mode mode) {
+        return MOVE_LATENCIES[mode.ordinal()];
+    }
+
+    static LatencyHistogram getMoveLatency() {
+        return ALL_MOVE_LATENCIES;
+    }
+
+    static void reset() {
+        for (int i = 0; i < RULES.length; i++) {
+            RULE_HITS[i].reset();
+            RULE_LATENCIES[i].reset();
+        }
+        for (LatencyHistogram histogram : MOVE_LATENCIES) {
+            histogram.reset();
+        }
+        ALL_MOVE_LATENCIES.reset();
+        TWO_FORK_TRIALS.reset();
+    }
+
+    private static String formatLatency(String name, LatencyHistogram histogram) {
+        return String.format("%-16s %10d %10.2f %10.2f %10.2f %10.2f%n", name, histogram.getCount(),
+                histogram.getMean() / 1e3, histogram.getValueAtPercentile(50) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3, histogram.getMax() / 1e3);
+    }
+
+    // Returns a text table of all the metrics
+    static String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append("AI metrics (").append(enabled ? "enabled" : "disabled").append("), latencies in us\n");
+        text.append(String.format("%-16s %10s %10s %10s %10s %10s%n", "rule", "hits", "mean", "p50", "p99", "max"));
+        for (RuleStrategy.Rule rule : RULES) {
+            text.append(formatLatency(rule.name(), getRuleLatency(rule)));
+        }
+        text.append("two-fork trial placements: ").append(getTwoForkTrials()).append('\n');
+        text.append(String.format("%-16s %10s %10s %10s %10s %10s%n", "getGameMove", "moves", "mean", "p50", "p99",
+                "max"));
+        for (AIPlayer.Mode mode : MODES) {
+            if (getMoveLatency(mode).getCount() > 0) {
+                text.append(formatLatency(mode.name(), getMoveLatency(mode)));
+            }
+        }
+        text.append(formatLatency("all", ALL_MOVE_LATENCIES));
+        return text.toString();
+    }
+
+    // Registers the JMX view unless it is registered already
+    static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(new View(), AIMetricsMBean.class), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * The View class implements the JMX view on the static metrics.
+     */
+    private static class View implements AIMetricsMBean {
+        @Override
+        public boolean isEnabled() {
+            return AIMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean isEnabled) {
+            AIMetrics.setEnabled(isEnabled);
+        }
+
+        @Override
+        public String[] getRuleNames() {
+            String[] names = new String[RULES.length];
+            for (int i = 0; i < RULES.length; i++) {
+                names[i] = RULES[i].name();
+            }
+            return names;
+        }
+
+        @Override
+        public long[] getRuleHits() {
+            long[] hits = new long[RULES.length];
+            for (int i = 0; i < RULES.length; i++) {
+                hits[i] = RULE_HITS[i].sum();
+            }
+            return hits;
+        }
+
+        @Override
+        public long getTwoForkTrials() {
+            return AIMetrics.getTwoForkTrials();
+        }
+
+        @Override
+        public long getMoveCount() {
+            return ALL_MOVE_LATENCIES.getCount();
+        }
+
+        @Override
+        public double getMoveLatencyMeanMicros() {
+            return ALL_MOVE_LATENCIES.getMean() / 1e3;
+        }
+
+        @Override
+        public double getMoveLatencyP50Micros() {
+            return ALL_MOVE_LATENCIES.getValueAtPercentile(50) / 1e3;
+        }
+
+        @Override
+        public double getMoveLatencyP99Micros() {
+            return ALL_MOVE_LATENCIES.getValueAtPercentile(99) / 1e3;
+        }
+
+        @Override
+        public double getMoveLatencyMaxMicros() {
+            return ALL_MOVE_LATENCIES.getMax() / 1e3;
+        }
+
+        @Override
+        public String dump() {
+            return AIMetrics.dump();
+        }
+
+        @Override
+        public void reset() {
+            AIMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package game;
+
+/**
+ * The AIMetricsMBean interface is the JMX view of AIMetrics, registered as
+ * game:type=AIMetrics. Latencies are in microseconds.
+ */
+public interface AIMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    String[] getRuleNames();
+
+    long[] getRuleHits();
+
+    long getTwoForkTrials();
+
+    long getMoveCount();
+
+    double getMoveLatencyMeanMicros();
+
+    double getMoveLatencyP50Micros();
+
+    double getMoveLatencyP99Micros();
+
+    double getMoveLatencyMaxMicros();
+
+    String dump();
+
+    void reset();
+}
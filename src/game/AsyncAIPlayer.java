@@ -0,0 +1,84 @@
+package game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AsyncAIPlayer class computes AI moves on a background thread, so the caller's
+ * thread is never blocked while the AI thinks.
+ *
+ * A request snapshots the game into a GameState owned by the background thread, and
+ * the AIPlayer only ever reads that copy; the caller can keep changing its own
+ * GameState while the move is computed. Requests run one at a time in order, and a
+ * request that is cancelled before its delay has passed is never computed. A search
+ * that is already running is not interrupted by a cancel: it runs to the end on the
+ * background thread and its move is dropped.
+ */
+class AsyncAIPlayer {
+    private final GameState workerState;
+    private final AIPlayer aiPlayer;
+    private final ExecutorService executor;
+    private CompletableFuture<GridNumber> pending;
+    // The difficulty last set by the caller, the AIPlayer takes it on the background thread
+    private AIPlayer.Difficulty difficulty;
+
+    AsyncAIPlayer(GameState gameState) {
+        workerState = new GameState(gameState.getSize(), gameState.getWinLength());
+        aiPlayer = new AIPlayer(workerState);
+        difficulty = aiPlayer.getDifficulty();
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-player");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    AIPlayer.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    // Sets the difficulty of the moves requested from now on. The AIPlayer is changed on
+    // the background thread, after any search still running there has finished.
+    void setDifficulty(AIPlayer.Difficulty aDifficulty) {
+        difficulty = aDifficulty;
+        executor.execute(() -> aiPlayer.setDifficulty(aDifficulty));
+    }
+
+    /**
+     * Starts computing the move for the player to move in gameState after waiting
+     * delayMillis, without blocking. lastMove is the opponent's last move. Must be
+     * called on the thread that owns gameState; a move still pending is cancelled.
+     */
+    CompletableFuture<GridNumber> requestMove(GameState gameState, GridNumber lastMove, long delayMillis) {
+        cancel();
+        // Snapshot on the calling thread, the background thread only sees the copy
+        GameState snapshot = new GameState(gameState.getSize(), gameState.getWinLength());
+        snapshot.copyFrom(gameState);
+        pending = CompletableFuture.supplyAsync(() -> {
+            workerState.copyFrom(snapshot);
+            return aiPlayer.getGameMove(lastMove);
+        }, CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor));
+        return pending;
+    }
+
+    boolean isPending() {
+        return pending != null && !pending.isDone();
+    }
+
+    // Cancels the pending move, returns whether there was one
+    boolean cancel() {
+        boolean wasPending = isPending();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        return wasPending;
+    }
+
+    void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BatchEvaluator class finds the best move and the game-theoretic value of many
+ * positions at once. Positions are given in the packed int form of Position.toInt(),
+ * and the results are written into primitive arrays.
+ *
+ * A batch is split into chunks that run in parallel on a ForkJoinPool. The values
+ * always come from the PerfectPlayTable. In TABLE mode the moves come from the table
+ * too and no object is created per position; other modes ask a MoveService, which
+ * keeps a scratch board and AIPlayer per worker thread.
+ */
+final class BatchEvaluator {
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+    // The value written for a position that cannot arise in a game
+    static final byte NO_VALUE = Byte.MIN_VALUE;
+
+    private final AIPlayer.Mode mode;
+    private final PerfectPlayTable table;
+    private final MoveService service;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    BatchEvaluator(AIPlayer.Mode aMode) {
+        this(aMode, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    BatchEvaluator(AIPlayer.Mode aMode, ForkJoinPool aPool, int aChunkSize) {
+        if (aChunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + aChunkSize);
+        }
+        mode = aMode;
+        table = PerfectPlayTable.getInstance();
+        service = aMode == AIPlayer.Mode.TABLE ? null : new MoveService(aMode);
+        pool = aPool;
+        chunkSize = aChunkSize;
+    }
+
+    AIPlayer.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Evaluates every packed position, writing the best cell to play (or
+     * PerfectPlayTable.NO_MOVE once the game has ended) into moves and the value for
+     * the player to move (PerfectPlayTable.LOSS, DRAW or WIN) into values. Positions
+     * that cannot arise in a game get NO_MOVE and NO_VALUE.
+     */
+    void evaluate(int[] positions, byte[] moves, byte[] values) {
+        if (moves.length < positions.length || values.length < positions.length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the " + positions.length
+                    + " positions");
+        }
+        pool.invoke(new Chunk(positions, moves, values, 0, positions.length));
+    }
+
+    // Evaluates the positions from start up to end on the calling thread
+    private void evaluateRange(int[] positions, byte[] moves, byte[] values, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int index = Position.getIndex(positions[i]);
+            if (!table.isReachable(index)) {
+                moves[i] = (byte) PerfectPlayTable.NO_MOVE;
+                values[i] = NO_VALUE;
+                continue;
+            }
+            values[i] = (byte) table.getValue(index);
+            if (service == null) {
+                moves[i] = (byte) table.getMove(index);
+            } else {
+                GridNumber move = service.getMove(Position.fromInt(positions[i]));
+                moves[i] = (byte) (move.isValid() ? Bitboard.getCell(move) : PerfectPlayTable.NO_MOVE);
+            }
+        }
+    }
+
+    /**
+     * The Chunk class evaluates a range of a batch, splitting it in halves until it is
+     * no longer than the chunk size.
+     */
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] positions;
+        private final byte[] moves;
+        private final byte[] values;
+        private final int start;
+        private final int end;
+
+        Chunk(int[] somePositions, byte[] someMoves, byte[] someValues, int aStart, int anEnd) {
+            positions = somePositions;
+            moves = someMoves;
+            values = someValues;
+            start = aStart;
+            end = anEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                evaluateRange(positions, moves, values, start, end);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new Chunk(positions, moves, values, start, middle),
+                    new Chunk(positions, moves, values, middle, end));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package game;
+
+/**
+ * The Bitboard class provides the bit mask helpers used to represent a 3x3 board
+ * as two 9-bit masks, one per player. Bit (r * 3 + c) is set when the location
+ * at row r and column c is occupied.
+ *
+ * A position can also be keyed by its base-3 index, the sum over all cells of the
+ * occupying Player's ordinal times 3^cell.
+ */
+final class Bitboard {
+    static final int SIZE = 3;
+    static final int NUM_CELLS = SIZE * SIZE;
+    static final int FULL_MASK = (1 << NUM_CELLS) - 1;
+    static final int NUM_INDICES = 19683; // 3^9
+
+    // The 8 winning lines: 3 rows, 3 columns and 2 diagonals
+    static final int[] LINE_MASKS = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000,
+            0b001_001_001, 0b010_010_010, 0b100_100_100,
+            0b100_010_001, 0b001_010_100
+    };
+
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+    // The base-3 index of each mask as if its cells held ordinal 1
+    private static final int[] MASK_INDEX = new int[FULL_MASK + 1];
+
+    static {
+        for (int mask = 1; mask <= FULL_MASK; mask++) {
+            int cell = Integer.numberOfTrailingZeros(mask);
+            MASK_INDEX[mask] = MASK_INDEX[mask & (mask - 1)] + POW3[cell];
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    static int getCell(int r, int c) {
+        return r * SIZE + c;
+    }
+
+    static int getCell(GridNumber gridNum) {
+        return getCell(gridNum.getRow(), gridNum.getColumn());
+    }
+
+    static int getBit(int r, int c) {
+        return 1 << getCell(r, c);
+    }
+
+    static int getBit(GridNumber gridNum) {
+        return getBit(gridNum.getRow(), gridNum.getColumn());
+    }
+
+    static boolean hasLine(int mask) {
+        for (int lineMask : LINE_MASKS) {
+            if ((mask & lineMask) == lineMask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isFull(int crossMask, int circleMask) {
+        return (crossMask | circleMask) == FULL_MASK;
+    }
+
+    // The masks must not overlap
+    static int getIndex(int crossMask, int circleMask) {
+        return MASK_INDEX[crossMask] * Player.CROSS.ordinal() + MASK_INDEX[circleMask] * Player.CIRCLE.ordinal();
+    }
+
+    // Returns the mask of the cells that player occupies in the position with the index
+    static int getMask(int index, Player player) {
+        int mask = 0;
+        for (int cell = 0; cell < NUM_CELLS; cell++, index /= 3) {
+            if (index % 3 == player.ordinal()) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    // Returns the change in the base-3 index when player occupies cell
+    static int getIndexDelta(int cell, Player player) {
+        return player.ordinal() * POW3[cell];
+    }
+}
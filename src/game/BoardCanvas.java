@@ -0,0 +1,153 @@
+package game;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * The BoardCanvas class draws a size x size board on a single Canvas instead of one
+ * Button per cell, so boards of any size, and many boards at once, stay cheap to show.
+ *
+ * Changing a cell only marks it dirty. The first change after a redraw schedules one
+ * redraw with Platform.runLater, which runs after the current event has been handled,
+ * so all the changes of one user action are drawn together, in one pulse, and only the
+ * dirty cells are drawn again. Must be used on the JavaFX application thread.
+ *
+ * With setAutoRedraw(false) nothing is scheduled, and the owner draws the dirty cells
+ * with flush, as the Dashboard does once per animation frame for all its boards.
+ */
+class BoardCanvas extends Canvas {
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color GRID = Color.BLACK;
+    private static final Color CROSS = Color.web("#1f4e9a");
+    private static final Color CIRCLE = Color.web("#b3261e");
+
+    private final int size;
+    private final double cellSize;
+    private final double gap;
+    private final Player[] cells;
+    private final int[] dirtyCells;
+    private final boolean[] isDirty;
+    private int numDirty;
+    private boolean autoRedraw = true;
+    private boolean redrawPending;
+    private long numRedraws;
+    private long numCellsDrawn;
+
+    BoardCanvas(int aSize, double aCellSize) {
+        super(aSize * aCellSize, aSize * aCellSize);
+        size = aSize;
+        cellSize = aCellSize;
+        gap = Math.max(1.0, Math.round(aCellSize / 20));
+        cells = new Player[size * size];
+        dirtyCells = new int[size * size];
+        isDirty = new boolean[size * size];
+        Arrays.fill(cells, Player.UNSET);
+        GraphicsContext g = getGraphicsContext2D();
+        g.setFill(GRID);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        for (int cell = 0; cell < cells.length; cell++) {
+            drawCell(g, cell);
+        }
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    // Returns the cell at a point of the canvas, or an invalid GridNumber on the grid
+    // lines between cells or off the board
+    GridNumber getLocation(double x, double y) {
+        int row = (int) Math.floor(y / cellSize);
+        int column = (int) Math.floor(x / cellSize);
+        if (row < 0 || column < 0 || row >= size || column >= size
+                || isOnGridLine(x - column * cellSize) || isOnGridLine(y - row * cellSize)) {
+            return GridNumber.getInvalidObject();
+        }
+        return GridNumber.of(row, column);
+    }
+
+    // Returns whether an offset into a cell falls on the grid line drawn around it
+    private boolean isOnGridLine(double offset) {
+        return offset < gap / 2 || offset >= cellSize - gap / 2;
+    }
+
+    void setAutoRedraw(boolean anAutoRedraw) {
+        autoRedraw = anAutoRedraw;
+    }
+
+    void setCell(int cell, Player player) {
+        if (cells[cell] == player) {
+            return;
+        }
+        cells[cell] = player;
+        if (!isDirty[cell]) {
+            isDirty[cell] = true;
+            dirtyCells[numDirty++] = cell;
+        }
+        if (autoRedraw && !redrawPending) {
+            redrawPending = true;
+            Platform.runLater(this::flush);
+        }
+    }
+
+    // Marks the cells that differ from gameState dirty
+    void sync(GameState gameState) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            setCell(cell, gameState.getOccupiedBy(cell));
+        }
+    }
+
+    void clear() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            setCell(cell, Player.UNSET);
+        }
+    }
+
+    // Draws the dirty cells, if there are any
+    void flush() {
+        redrawPending = false;
+        if (numDirty == 0) {
+            return;
+        }
+        GraphicsContext g = getGraphicsContext2D();
+        for (int i = 0; i < numDirty; i++) {
+            int cell = dirtyCells[i];
+            isDirty[cell] = false;
+            drawCell(g, cell);
+        }
+        numCellsDrawn += numDirty;
+        numDirty = 0;
+        numRedraws++;
+    }
+
+    private void drawCell(GraphicsContext g, int cell) {
+        double x = (cell % size) * cellSize + gap / 2;
+        double y = (cell / size) * cellSize + gap / 2;
+        double inner = cellSize - gap;
+        g.setFill(BACKGROUND);
+        g.fillRect(x, y, inner, inner);
+        double margin = inner * 0.2;
+        g.setLineWidth(Math.max(1.0, inner / 12));
+        if (cells[cell] == Player.CROSS) {
+            g.setStroke(CROSS);
+            g.strokeLine(x + margin, y + margin, x + inner - margin, y + inner - margin);
+            g.strokeLine(x + inner - margin, y + margin, x + margin, y + inner - margin);
+        } else if (cells[cell] == Player.CIRCLE) {
+            g.setStroke(CIRCLE);
+            g.strokeOval(x + margin, y + margin, inner - 2 * margin, inner - 2 * margin);
+        }
+    }
+
+    // Returns how many redraws ran and how many cells they drew, for testing batching
+    long getNumRedraws() {
+        return numRedraws;
+    }
+
+    long getNumCellsDrawn() {
+        return numCellsDrawn;
+    }
+}
@@ -0,0 +1,114 @@
+package game;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The BoardGeometry class describes a size x size board where winLength in a row wins.
+ * Cells are numbered row by row, cell = row * size + column. A line is any run of
+ * winLength cells along a row, a column or one of the two diagonal directions; the
+ * lines through each cell are precomputed so a move only has to update those.
+ *
+ * Geometries are immutable and shared, look them up with of().
+ */
+final class BoardGeometry {
+    static final int MAX_SIZE = GridNumber.MAX_SIZE;
+
+    private static final ConcurrentHashMap<Integer, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+    // Row and column steps of the 4 line directions
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int size;
+    private final int winLength;
+    private final int numCells;
+    private final int[][] lineCells;
+    private final int[][] cellLines;
+
+    private BoardGeometry(int aSize, int aWinLength) {
+        size = aSize;
+        winLength = aWinLength;
+        numCells = size * size;
+
+        int numLines = 0;
+        int[][] lines = new int[DIRECTIONS.length * numCells][];
+        int[] numCellLines = new int[numCells];
+        for (int[] direction : DIRECTIONS) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int endRow = r + (winLength - 1) * direction[0];
+                    int endCol = c + (winLength - 1) * direction[1];
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    int[] line = new int[winLength];
+                    for (int k = 0; k < winLength; k++) {
+                        line[k] = getCell(r + k * direction[0], c + k * direction[1]);
+                        numCellLines[line[k]]++;
+                    }
+                    lines[numLines++] = line;
+                }
+            }
+        }
+        lineCells = new int[numLines][];
+        System.arraycopy(lines, 0, lineCells, 0, numLines);
+
+        cellLines = new int[numCells][];
+        for (int cell = 0; cell < numCells; cell++) {
+            cellLines[cell] = new int[numCellLines[cell]];
+            numCellLines[cell] = 0;
+        }
+        for (int line = 0; line < numLines; line++) {
+            for (int cell : lineCells[line]) {
+                cellLines[cell][numCellLines[cell]++] = line;
+            }
+        }
+    }
+
+    static BoardGeometry of(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Unsupported board " + size + "x" + size + " with "
+                    + winLength + " in a row");
+        }
+        return GEOMETRIES.computeIfAbsent(size * (MAX_SIZE + 1) + winLength, k -> new BoardGeometry(size, winLength));
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getWinLength() {
+        return winLength;
+    }
+
+    int getNumCells() {
+        return numCells;
+    }
+
+    int getNumLines() {
+        return lineCells.length;
+    }
+
+    int getCell(int r, int c) {
+        return r * size + c;
+    }
+
+    int getCell(GridNumber gridNum) {
+        return getCell(gridNum.getRow(), gridNum.getColumn());
+    }
+
+    GridNumber getLocation(int cell) {
+        return GridNumber.of(cell / size, cell % size);
+    }
+
+    int[] getLineCells(int line) {
+        return lineCells[line];
+    }
+
+    int[] getCellLines(int cell) {
+        return cellLines[cell];
+    }
+
+    // The standard game is 3x3 with 3 in a row, which is what Bitboard describes
+    boolean isStandard() {
+        return size == Bitboard.SIZE && winLength == Bitboard.SIZE;
+    }
+}
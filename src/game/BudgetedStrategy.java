@@ -0,0 +1,47 @@
+package game;
+
+import java.util.Random;
+
+/**
+ * The BudgetedStrategy class plays at an AIPlayer.Difficulty below PERFECT, on boards
+ * of any size. It runs a LineSearchStrategy limited to the depth, nodes and time of the
+ * level, so it answers within the level's time budget however hard the position is,
+ * and with the level's epsilon probability plays a random free location instead.
+ */
+class BudgetedStrategy implements MoveStrategy {
+    private final AIPlayer.Difficulty difficulty;
+    private final LineSearchStrategy search;
+    private final RandomStrategy noise;
+    private final Random random;
+
+    BudgetedStrategy(GameState aGameState, AIPlayer.Difficulty aDifficulty, Random aRandom) {
+        if (aDifficulty == AIPlayer.Difficulty.PERFECT) {
+            throw new IllegalArgumentException("PERFECT plays without a budget");
+        }
+        difficulty = aDifficulty;
+        BoardGeometry geometry = aGameState.getGeometry();
+        search = new LineSearchStrategy(aGameState,
+                Math.min(aDifficulty.getMaxDepth(), LineSearchStrategy.getDefaultDepth(geometry)),
+                LineSearchStrategy.getDefaultBreadth(geometry));
+        search.setMaxNodes(aDifficulty.getMaxNodes());
+        search.setMaxMillis(aDifficulty.getMaxMillis());
+        noise = new RandomStrategy(aGameState, aRandom);
+        random = aRandom;
+    }
+
+    AIPlayer.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    LineSearchStrategy getSearch() {
+        return search;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        if (random.nextDouble() < difficulty.getEpsilon()) {
+            return noise.getMove(lastMove);
+        }
+        return search.getMove(lastMove);
+    }
+}
@@ -21,14 +21,14 @@ class ButtonClickHandler implements EventHandler<ActionEvent> {
         }
         Button clickedB = (Button) event.getSource();
 
-        if (game.isPlayButton(clickedB)) {
-            game.play(clickedB);
-        } else if (game.isResetButton(clickedB)) {
+        if (game.isResetButton(clickedB)) {
             game.reset();
         } else if (game.isUndoButton(clickedB)) {
             game.undo();
         } else if (game.isRedoButton(clickedB)) {
             game.redo();
+        } else if (game.isLevelButton(clickedB)) {
+            game.nextLevel();
         }
     }
 }
@@ -0,0 +1,164 @@
+package game;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.TilePane;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Dashboard class is a JavaFX spectator view of many games at once, next to the
+ * single game of Main. It starts a GameFeed of AI-vs-AI games, shows every board on a
+ * BoardCanvas, dims the boards whose game has ended, and shows the games and moves per
+ * second, the results so far, the frame rate and the events dropped.
+ *
+ * The feed threads never touch the scene graph. Their MoveEvents wait in a bounded
+ * MoveEventQueue that drops the oldest events when full, and an AnimationTimer drains
+ * it once per frame: the events of a frame are applied to the boards in order, so a
+ * board that moved several times only keeps its latest state, and then each board
+ * draws the cells that changed. The work per frame is bounded by the queue capacity,
+ * however fast the games run.
+ *
+ * Usage: Dashboard [--boards=N] [--threads=N] [--cross=MODE] [--circle=MODE]
+ *                  [--size=N] [--win=K] [--seed=N] [--move-millis=N] [--queue=N]
+ *                  [--cell=N]
+ * where MODE is one of the AIPlayer.Mode names, --move-millis is the time between two
+ * moves on a board, 0 to play as fast as possible, and --cell is the cell size in
+ * pixels.
+ */
+public class Dashboard extends Application {
+    private static final String APP_TITLE = "Tic-Tac-Toe Dashboard";
+    private static final double ENDED_OPACITY = 0.4;
+    private static final long STATS_NANOS = 500_000_000L;
+
+    private GameFeed feed;
+    private BoardCanvas[] boards;
+    private Label statsL;
+    private AnimationTimer timer;
+    private final List<MoveEvent> batch = new ArrayList<>();
+
+    // The counters at the start of the current stats interval
+    private long intervalStart;
+    private long intervalMoves;
+    private long intervalGames;
+    private long intervalEvents;
+    private int intervalFrames;
+    private long maxFrameNanos;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    private static int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    @Override
+    public void start(Stage primaryStage) {
+        primaryStage.setTitle(APP_TITLE);
+        Map<String, String> parameters = getParameters().getNamed();
+        int numBoards = getIntParameter(parameters, "boards", 200);
+        int numThreads = getIntParameter(parameters, "threads", Runtime.getRuntime().availableProcessors());
+        AIPlayer.Mode crossMode = AIPlayer.Mode.valueOf(parameters.getOrDefault("cross", "RANDOM"));
+        AIPlayer.Mode circleMode = AIPlayer.Mode.valueOf(parameters.getOrDefault("circle", "RULES"));
+        int size = getIntParameter(parameters, "size", 3);
+        int winLength = getIntParameter(parameters, "win", size);
+        long seed = Long.parseLong(parameters.getOrDefault("seed", "1"));
+        long moveMillis = getIntParameter(parameters, "move-millis", 100);
+        int capacity = getIntParameter(parameters, "queue", MoveEventQueue.DEFAULT_CAPACITY);
+        int cellSize = getIntParameter(parameters, "cell", Math.max(4, 60 / size));
+
+        boards = new BoardCanvas[numBoards];
+        TilePane grid = new TilePane(8, 8);
+        grid.setPadding(new Insets(8));
+        grid.setPrefColumns((int) Math.ceil(Math.sqrt(numBoards)));
+        for (int i = 0; i < numBoards; i++) {
+            boards[i] = new BoardCanvas(size, cellSize);
+            // The timer draws all the boards once per frame
+            boards[i].setAutoRedraw(false);
+            grid.getChildren().add(boards[i]);
+        }
+        statsL = new Label();
+        statsL.setPadding(new Insets(8));
+        statsL.setStyle("-fx-font-family: monospace;");
+        BorderPane layout = new BorderPane(new ScrollPane(grid));
+        layout.setTop(statsL);
+        primaryStage.setScene(new Scene(layout));
+        primaryStage.show();
+
+        feed = new GameFeed(numBoards, numThreads, crossMode, circleMode, size, winLength, seed, moveMillis,
+                new MoveEventQueue(capacity));
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onFrame(now);
+            }
+        };
+        intervalStart = System.nanoTime();
+        feed.start();
+        timer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (timer != null) {
+            timer.stop();
+        }
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    // Applies the events that arrived since the last frame and draws the changed cells
+    private void onFrame(long now) {
+        long frameStart = System.nanoTime();
+        MoveEventQueue queue = feed.getQueue();
+        batch.clear();
+        queue.drainTo(batch, queue.getCapacity());
+        for (MoveEvent event : batch) {
+            BoardCanvas board = boards[event.getBoard()];
+            for (int cell = 0; cell < event.getNumCells(); cell++) {
+                board.setCell(cell, event.getOccupiedBy(cell));
+            }
+            board.setOpacity(event.isEnded() ? ENDED_OPACITY : 1.0);
+        }
+        for (BoardCanvas board : boards) {
+            board.flush();
+        }
+        intervalFrames++;
+        maxFrameNanos = Math.max(maxFrameNanos, System.nanoTime() - frameStart);
+        if (now - intervalStart >= STATS_NANOS) {
+            updateStats(now);
+        }
+    }
+
+    private void updateStats(long now) {
+        MoveEventQueue queue = feed.getQueue();
+        double seconds = (now - intervalStart) / 1e9;
+        long moves = feed.getNumMoves();
+        long games = feed.getNumGames();
+        long events = queue.getNumOffered();
+        long dropped = queue.getNumDropped();
+        statsL.setText(String.format("%d boards  %8.0f games/s  %9.0f moves/s  X wins %d  O wins %d  draws %d%n"
+                        + "%5.1f fps  max frame %5.2f ms  %9.0f events/s  dropped %d (%d%%)",
+                boards.length, (games - intervalGames) / seconds, (moves - intervalMoves) / seconds,
+                feed.getNumWins(Player.CROSS), feed.getNumWins(Player.CIRCLE), feed.getNumDraws(),
+                intervalFrames / seconds, maxFrameNanos / 1e6, (events - intervalEvents) / seconds, dropped,
+                events == 0 ? 0 : 100 * dropped / events));
+        intervalStart = now;
+        intervalMoves = moves;
+        intervalGames = games;
+        intervalEvents = events;
+        intervalFrames = 0;
+        maxFrameNanos = 0;
+    }
+}
@@ -0,0 +1,188 @@
+package game;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameFeed class plays many AI-vs-AI games at once, headless, and publishes a
+ * MoveEvent to a MoveEventQueue after every move and at the start of every game. A
+ * board starts its next game as soon as one ends.
+ *
+ * The boards are sharded across a fixed pool of daemon threads, each owning the
+ * GameState and AIPlayers of its boards, and play one move per board in turn. With a
+ * move time every board moves about once per move time, so games can be followed;
+ * without one the games run as fast as the threads allow and the queue drops what a
+ * spectator cannot keep up with. The move, game and result counters are kept here,
+ * not derived from the events, so they stay exact whatever is dropped.
+ */
+class GameFeed implements AutoCloseable {
+    private final int numBoards;
+    private final int numThreads;
+    private final AIPlayer.Mode crossMode;
+    private final AIPlayer.Mode circleMode;
+    private final int size;
+    private final int winLength;
+    private final long seed;
+    private final long moveMillis;
+    private final MoveEventQueue queue;
+    private final LongAdder numMoves = new LongAdder();
+    // Indexed by the ordinal of the winner, UNSET counts the draws
+    private final LongAdder[] numResults = new LongAdder[Player.values().length];
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    /**
+     * The Board class is one board of a worker, with the players of both sides.
+     */
+    private static final class Board {
+        private final GameState gameState;
+        private final AIPlayer crossPlayer;
+        private final AIPlayer circlePlayer;
+        private GridNumber lastMove = GridNumber.getInvalidObject();
+
+        Board(GameState aGameState, AIPlayer aCrossPlayer, AIPlayer aCirclePlayer) {
+            gameState = aGameState;
+            crossPlayer = aCrossPlayer;
+            circlePlayer = aCirclePlayer;
+        }
+    }
+
+    GameFeed(int aNumBoards, int aNumThreads, AIPlayer.Mode aCrossMode, AIPlayer.Mode aCircleMode,
+             int aSize, int aWinLength, long aSeed, long aMoveMillis, MoveEventQueue aQueue) {
+        if (aNumBoards < 1 || aNumThreads < 1) {
+            throw new IllegalArgumentException("A feed needs at least one board and one thread: " + aNumBoards
+                    + " boards, " + aNumThreads + " threads");
+        }
+        numBoards = aNumBoards;
+        numThreads = Math.min(aNumThreads, aNumBoards);
+        crossMode = aCrossMode;
+        circleMode = aCircleMode;
+        size = aSize;
+        winLength = aWinLength;
+        seed = aSeed;
+        moveMillis = aMoveMillis;
+        queue = aQueue;
+        for (int i = 0; i < numResults.length; i++) {
+            numResults[i] = new LongAdder();
+        }
+    }
+
+    int getNumBoards() {
+        return numBoards;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    MoveEventQueue getQueue() {
+        return queue;
+    }
+
+    long getNumMoves() {
+        return numMoves.sum();
+    }
+
+    long getNumGames() {
+        long numGames = 0;
+        for (LongAdder count : numResults) {
+            numGames += count.sum();
+        }
+        return numGames;
+    }
+
+    long getNumWins(Player player) {
+        return numResults[player.ordinal()].sum();
+    }
+
+    long getNumDraws() {
+        return numResults[Player.UNSET.ordinal()].sum();
+    }
+
+    void start() {
+        if (executor != null) {
+            throw new IllegalStateException("The feed has already been started");
+        }
+        running = true;
+        executor = Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "game-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int worker = 0; worker < numThreads; worker++) {
+            int shardWorker = worker;
+            executor.execute(() -> playBoards(shardWorker));
+        }
+    }
+
+    // Stops the games and waits up to a second for the feed threads to finish
+    @Override
+    public void close() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private AIPlayer createPlayer(GameState gameState, AIPlayer.Mode mode, long playerSeed) {
+        AIPlayer player = new AIPlayer(gameState, mode);
+        if (mode == AIPlayer.Mode.RANDOM) {
+            // Seed random players so a run can be repeated
+            player.setStrategy(new RandomStrategy(gameState, new Random(playerSeed)));
+        }
+        return player;
+    }
+
+    // Plays the boards worker, worker + numThreads, ... until the feed is closed
+    private void playBoards(int worker) {
+        Board[] boards = new Board[(numBoards - worker + numThreads - 1) / numThreads];
+        for (int i = 0; i < boards.length; i++) {
+            int id = worker + i * numThreads;
+            GameState gameState = new GameState(size, winLength);
+            boards[i] = new Board(gameState, createPlayer(gameState, crossMode, seed * 31 + 2 * id),
+                    createPlayer(gameState, circleMode, seed * 31 + 2 * id + 1));
+            queue.offer(MoveEvent.of(id, -1, gameState));
+        }
+        while (running) {
+            long passStart = System.nanoTime();
+            for (int i = 0; i < boards.length && running; i++) {
+                playMove(worker + i * numThreads, boards[i]);
+            }
+            if (moveMillis > 0) {
+                long sleepNanos = moveMillis * 1_000_000 - (System.nanoTime() - passStart);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Plays the next move on board, or starts its next game if the last one has ended
+    private void playMove(int id, Board board) {
+        GameState gameState = board.gameState;
+        if (gameState.getGameEnded()) {
+            gameState.initGame();
+            board.lastMove = GridNumber.getInvalidObject();
+            queue.offer(MoveEvent.of(id, -1, gameState));
+            return;
+        }
+        AIPlayer player = gameState.getPlayerToMove() == Player.CROSS ? board.crossPlayer : board.circlePlayer;
+        board.lastMove = player.getGameMove(board.lastMove);
+        gameState.setMove(board.lastMove);
+        numMoves.increment();
+        if (gameState.getGameEnded()) {
+            numResults[gameState.getWinner().ordinal()].increment();
+        }
+        queue.offer(MoveEvent.of(id, gameState.getGeometry().getCell(board.lastMove), gameState));
+    }
+}
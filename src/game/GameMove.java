@@ -1,17 +1,39 @@
 package game;
 
 /**
- * The GameMove class is used to represent a game move.
+ * The GameMove class is used to represent a game move. Instances are interned like
+ * GridNumber, use of() to look up the canonical object of a move.
  */
 class GameMove {
+    private static final GameMove[][][] MOVES;
+
     private GridNumber location;
     private Player player;
 
-    GameMove(GridNumber aLoc, Player aPlayer) {
+    static {
+        Player[] players = Player.values();
+        MOVES = new GameMove[GridNumber.MAX_SIZE][GridNumber.MAX_SIZE][players.length];
+        for (int r = 0; r < GridNumber.MAX_SIZE; r++) {
+            for (int c = 0; c < GridNumber.MAX_SIZE; c++) {
+                for (Player player : players) {
+                    MOVES[r][c][player.ordinal()] = new GameMove(GridNumber.of(r, c), player);
+                }
+            }
+        }
+    }
+
+    private GameMove(GridNumber aLoc, Player aPlayer) {
         location = aLoc;
         player = aPlayer;
     }
 
+    static GameMove of(GridNumber aLoc, Player aPlayer) {
+        if (!aLoc.isValid()) {
+            return new GameMove(aLoc, aPlayer);
+        }
+        return MOVES[aLoc.getRow()][aLoc.getColumn()][aPlayer.ordinal()];
+    }
+
     GridNumber getLocation() {
         return location;
     }
@@ -0,0 +1,44 @@
+package game;
+
+/**
+ * The GameRecord class describes the binary game record format written by
+ * GameRecordWriter and read by GameRecordReader.
+ *
+ * A file starts with a 12 byte big-endian header: the magic number "TTTR", the format
+ * version, the board size, the win length and two reserved bytes. All games of a file
+ * are played on that board. Each game follows as its number of moves, written as a
+ * varint (7 bits per byte, low bits first), and the cells of its moves in the order
+ * they were played, CROSS first. Cells take 4 bits on boards of up to 16 cells, two
+ * to a byte with the first in the low nibble, one byte on boards of up to 256 cells
+ * and two bytes on larger boards. A game on the standard board takes at most 6 bytes.
+ */
+final class GameRecord {
+    static final int MAGIC = 0x54545452;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private GameRecord() {
+    }
+
+    // Returns the number of bits one cell of a board with numCells cells takes
+    static int getCellBits(int numCells) {
+        if (numCells <= 16) {
+            return 4;
+        } else if (numCells <= 256) {
+            return Byte.SIZE;
+        }
+        return Short.SIZE;
+    }
+
+    // Returns the number of bytes the cells of numMoves moves take
+    static int getMovesSize(int numMoves, int cellBits) {
+        return (numMoves * cellBits + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    // Returns the largest number of bytes a game on a board with numCells cells takes
+    static int getMaxRecordSize(int numCells) {
+        // The move count of a board of up to 19x19 cells takes at most 2 varint bytes
+        return 2 + getMovesSize(numCells, getCellBits(numCells));
+    }
+}
@@ -0,0 +1,146 @@
+package game;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameRecordReader class streams games from a channel in the GameRecord format.
+ * The channel is read through one fixed-size buffer and the moves of each game are
+ * copied into an array supplied by the caller, so archives of any size are read in
+ * constant memory.
+ *
+ * A reader is not thread safe.
+ */
+final class GameRecordReader implements Closeable {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int winLength;
+    private final int numCells;
+    private final int cellBits;
+    private boolean endOfStream;
+    private long numGames;
+
+    GameRecordReader(ReadableByteChannel aChannel) throws IOException {
+        channel = aChannel;
+        buffer = ByteBuffer.allocateDirect(GameRecord.BUFFER_SIZE);
+        buffer.flip();
+        if (!fill(GameRecord.HEADER_SIZE) || buffer.getInt() != GameRecord.MAGIC) {
+            throw new IOException("Not a game record file");
+        }
+        int version = buffer.getInt();
+        if (version != GameRecord.VERSION) {
+            throw new IOException("Unsupported game record version " + version + ", expected "
+                    + GameRecord.VERSION);
+        }
+        size = buffer.get();
+        winLength = buffer.get();
+        buffer.getShort();
+        try {
+            numCells = BoardGeometry.of(size, winLength).getNumCells();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid board in game record header", e);
+        }
+        cellBits = GameRecord.getCellBits(numCells);
+    }
+
+    static GameRecordReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new GameRecordReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Reads until at least count bytes are buffered, returns false if the stream ends first
+    private boolean fill(int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < count && !endOfStream) {
+            if (channel.read(buffer) < 0) {
+                endOfStream = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= count;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getWinLength() {
+        return winLength;
+    }
+
+    long getNumGames() {
+        return numGames;
+    }
+
+    /**
+     * Reads the next game into cells, which must hold the number of cells of the board,
+     * and returns its number of moves, or -1 at the end of the stream.
+     */
+    int read(int[] cells) throws IOException {
+        if (!fill(1)) {
+            return -1;
+        }
+        int numMoves = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 14 || !fill(1)) {
+                throw new IOException("Corrupt move count in game " + numGames);
+            }
+            int b = buffer.get();
+            numMoves |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (numMoves > numCells) {
+            throw new IOException("Game " + numGames + " has " + numMoves + " moves on a board of "
+                    + numCells + " cells");
+        }
+        if (!fill(GameRecord.getMovesSize(numMoves, cellBits))) {
+            throw new EOFException("Game " + numGames + " is cut short");
+        }
+        if (cellBits == 4) {
+            for (int i = 0; i < numMoves; i += 2) {
+                int b = buffer.get();
+                cells[i] = b & 0xF;
+                if (i + 1 < numMoves) {
+                    cells[i + 1] = (b >>> 4) & 0xF;
+                }
+            }
+        } else if (cellBits == Byte.SIZE) {
+            for (int i = 0; i < numMoves; i++) {
+                cells[i] = buffer.get() & 0xFF;
+            }
+        } else {
+            for (int i = 0; i < numMoves; i++) {
+                cells[i] = buffer.getShort() & 0xFFFF;
+            }
+        }
+        for (int i = 0; i < numMoves; i++) {
+            if (cells[i] >= numCells) {
+                throw new IOException("Invalid cell " + cells[i] + " in game " + numGames);
+            }
+        }
+        numGames++;
+        return numMoves;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,117 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameRecordWriter class streams games to a channel in the GameRecord format. The
+ * games are gathered in a fixed-size buffer that is written out whenever the next game
+ * might not fit, so memory use does not grow with the number of games.
+ *
+ * A writer is not thread safe.
+ */
+final class GameRecordWriter implements Closeable {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final int numCells;
+    private final int cellBits;
+    private final int maxRecordSize;
+    private long numGames;
+
+    GameRecordWriter(WritableByteChannel aChannel, int size, int winLength) throws IOException {
+        BoardGeometry geometry = BoardGeometry.of(size, winLength);
+        channel = aChannel;
+        buffer = ByteBuffer.allocateDirect(GameRecord.BUFFER_SIZE);
+        numCells = geometry.getNumCells();
+        cellBits = GameRecord.getCellBits(numCells);
+        maxRecordSize = GameRecord.getMaxRecordSize(numCells);
+        buffer.putInt(GameRecord.MAGIC).putInt(GameRecord.VERSION)
+                .put((byte) size).put((byte) winLength).putShort((short) 0);
+    }
+
+    static GameRecordWriter create(Path path, int size, int winLength) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            return new GameRecordWriter(channel, size, winLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Writes a game given as the cells of its first numMoves moves
+    void write(int[] cells, int numMoves) throws IOException {
+        if (numMoves < 0 || numMoves > numCells) {
+            throw new IllegalArgumentException("A game has 0 to " + numCells + " moves, not " + numMoves);
+        }
+        // Check every cell before the record is started, so a bad game leaves no partial record
+        for (int i = 0; i < numMoves; i++) {
+            checkCell(cells, i);
+        }
+        if (buffer.remaining() < maxRecordSize) {
+            flush();
+        }
+        for (int count = numMoves; ; count >>>= 7) {
+            if (count < 0x80) {
+                buffer.put((byte) count);
+                break;
+            }
+            buffer.put((byte) (count & 0x7F | 0x80));
+        }
+        if (cellBits == 4) {
+            for (int i = 0; i < numMoves; i += 2) {
+                int high = i + 1 < numMoves ? cells[i + 1] << 4 : 0;
+                buffer.put((byte) (cells[i] | high));
+            }
+        } else if (cellBits == Byte.SIZE) {
+            for (int i = 0; i < numMoves; i++) {
+                buffer.put((byte) cells[i]);
+            }
+        } else {
+            for (int i = 0; i < numMoves; i++) {
+                buffer.putShort((short) cells[i]);
+            }
+        }
+        numGames++;
+    }
+
+    // Writes the moves played so far in gameState
+    void write(GameState gameState) throws IOException {
+        int[] cells = new int[gameState.getGeometry().getNumCells()];
+        write(cells, gameState.getMoves(cells));
+    }
+
+    private void checkCell(int[] cells, int i) {
+        int cell = cells[i];
+        if (cell < 0 || cell >= numCells) {
+            throw new IllegalArgumentException("Invalid cell " + cell + " in move " + i);
+        }
+    }
+
+    long getNumGames() {
+        return numGames;
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
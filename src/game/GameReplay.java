@@ -0,0 +1,132 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The GameReplay class replays recorded games of the standard board through a
+ * GameState and flags every move that gives away game-theoretic value: a drawn game
+ * turned into a loss, or a won game into a draw or a loss. The best move for each
+ * flagged position is taken from an AIPlayer in TABLE mode.
+ *
+ * Games are streamed one at a time from a GameRecordReader into reused arrays, so a
+ * replay runs in constant memory however large the archive is.
+ *
+ * Usage: GameReplay FILE [--player=CROSS|CIRCLE]
+ * where --player only checks the moves of that player, the human side of the games.
+ */
+final class GameReplay {
+    /**
+     * The Listener interface is told about every move that deviates from perfect play.
+     * Values are PerfectPlayTable.LOSS, DRAW or WIN for the player who moved.
+     */
+    interface Listener {
+        void onDeviation(long game, int ply, Player player, int played, int best, int valueBefore,
+                         int valueAfter);
+    }
+
+    private final Player checkedPlayer;
+    private final GameState gameState;
+    private final AIPlayer aiPlayer;
+    private final PerfectPlayTable table;
+    private final int[] cells;
+    private long numGames;
+    private long numMoves;
+    private long numDeviations;
+
+    // Checks the moves of checkedPlayer, or of both players if it is UNSET
+    GameReplay(Player aCheckedPlayer) {
+        checkedPlayer = aCheckedPlayer;
+        gameState = new GameState();
+        aiPlayer = new AIPlayer(gameState, AIPlayer.Mode.TABLE);
+        table = PerfectPlayTable.getInstance();
+        cells = new int[Bitboard.NUM_CELLS];
+    }
+
+    void replay(GameRecordReader reader, Listener listener) throws IOException {
+        if (reader.getSize() != Bitboard.SIZE || reader.getWinLength() != Bitboard.SIZE) {
+            throw new IllegalArgumentException("Perfect play is only known for the standard 3x3 board");
+        }
+        for (int count = reader.read(cells); count >= 0; count = reader.read(cells)) {
+            replayGame(count, listener);
+            numGames++;
+        }
+    }
+
+    private void replayGame(int count, Listener listener) throws IOException {
+        gameState.initGame();
+        GridNumber lastMove = GridNumber.getInvalidObject();
+        for (int ply = 0; ply < count; ply++) {
+            int cell = cells[ply];
+            if (gameState.getGameEnded() || gameState.isOccupied(cell)) {
+                throw new IOException("Game " + numGames + " has an illegal move " + cell + " at ply " + ply);
+            }
+            Player player = gameState.getPlayerToMove();
+            int valueBefore = table.getValue(gameState.getPositionIndex());
+            GridNumber bestMove = GridNumber.getInvalidObject();
+            if (checkedPlayer == Player.UNSET || checkedPlayer == player) {
+                bestMove = aiPlayer.getGameMove(lastMove);
+            }
+            GridNumber move = GridNumber.of(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+            gameState.setMove(move);
+            numMoves++;
+            if (bestMove.isValid()) {
+                // The value after the move is the opponent's, so it is negated
+                int valueAfter = -table.getValue(gameState.getPositionIndex());
+                if (valueAfter < valueBefore) {
+                    numDeviations++;
+                    listener.onDeviation(numGames, ply, player, cell, Bitboard.getCell(bestMove), valueBefore,
+                            valueAfter);
+                }
+            }
+            lastMove = move;
+        }
+    }
+
+    long getNumGames() {
+        return numGames;
+    }
+
+    long getNumMoves() {
+        return numMoves;
+    }
+
+    long getNumDeviations() {
+        return numDeviations;
+    }
+
+    private static String getValueName(int value) {
+        if (value == PerfectPlayTable.WIN) {
+            return "win";
+        } else if (value == PerfectPlayTable.LOSS) {
+            return "loss";
+        }
+        return "draw";
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameReplay FILE [--player=CROSS|CIRCLE]");
+            System.exit(2);
+        }
+        Player player = Player.UNSET;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--player=")) {
+                player = Player.valueOf(args[i].substring("--player=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        GameReplay replay = new GameReplay(player);
+        long start = System.nanoTime();
+        try (GameRecordReader reader = GameRecordReader.open(Paths.get(args[0]))) {
+            replay.replay(reader, (game, ply, mover, played, best, valueBefore, valueAfter) ->
+                    System.out.printf("game %d ply %d: %s played %d instead of %d, %s -> %s%n", game, ply, mover,
+                            played, best, getValueName(valueBefore), getValueName(valueAfter)));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d moves, %d deviations from perfect play in %.2f s (%.0f games/s)%n",
+                replay.getNumGames(), replay.getNumMoves(), replay.getNumDeviations(), seconds,
+                replay.getNumGames() / seconds);
+    }
+}
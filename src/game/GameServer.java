@@ -0,0 +1,239 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GameServer class serves a SessionManager over a line based text protocol on a
+ * local TCP port. Every command is one line and gets one line back, either
+ * "OK ..." or "ERR message":
+ *
+ *   NEW [size win]        OK id
+ *   MOVE id row column    OK aiRow aiColumn status, or OK - - status if the game ended
+ *   UNDO id | REDO id     OK status
+ *   RESET id              OK status
+ *   BOARD id              OK cells, one of X, O or . per cell in row order
+ *   CLOSE id              OK
+ *
+ * where status is one of PLAYING, X_WON, O_WON or DRAW. A client may keep any number
+ * of sessions open on one connection and pipeline commands. Each connection is served
+ * by its own thread. AI moves are computed on --ai-threads AI workers, one per
+ * processor by default, and a command waits for a free one, see SessionManager.
+ *
+ * With --compact-after, sessions idle for that many milliseconds are compacted and
+ * sessions idle for --spill-after milliseconds are spilled to --spill-file, see
+ * SessionManager.evictIdle(), which runs once a second.
+ *
+ * Usage: GameServer [--port=N] [--move-millis=N] [--ai-threads=N]
+ *                   [--compact-after=N] [--spill-after=N] [--spill-file=FILE]
+ */
+class GameServer {
+    static final int DEFAULT_PORT = 7070;
+
+    private final SessionManager sessions;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private ScheduledExecutorService evictor;
+
+    GameServer(int port, long moveMillis, int numAIThreads) throws IOException {
+        sessions = new SessionManager(moveMillis, numAIThreads);
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "game-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    SessionManager getSessions() {
+        return sessions;
+    }
+
+    // Evicts idle sessions once a second, see SessionManager.setEviction
+    void startEviction(long compactMillis, long spillMillis, String spillFile) throws IOException {
+        sessions.setEviction(compactMillis, spillMillis, Paths.get(spillFile));
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(sessions::evictIdle, 1, 1, TimeUnit.SECONDS);
+    }
+
+    // Accepts connections until the server socket is closed
+    void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            executor.execute(() -> handle(socket));
+        }
+    }
+
+    void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        sessions.close();
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+                     StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(execute(line));
+                out.write('\n');
+                // Answer a pipelined batch of commands with one write
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    // Runs one command line and returns the response line
+    String execute(String line) {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "NEW": {
+                    int size = words.length > 1 ? Integer.parseInt(words[1]) : 3;
+                    int winLength = words.length > 2 ? Integer.parseInt(words[2]) : size;
+                    return "OK " + sessions.create(size, winLength);
+                }
+                case "MOVE": {
+                    expectWords(words, 4);
+                    long id = Long.parseLong(words[1]);
+                    GridNumber humanMove = GridNumber.of(Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+                    GridNumber aiMove = sessions.move(id, humanMove);
+                    String status = sessions.withGame(id, GameServer::getStatus);
+                    if (!aiMove.isValid()) {
+                        return "OK - - " + status;
+                    }
+                    return "OK " + aiMove.getRow() + " " + aiMove.getColumn() + " " + status;
+                }
+                case "UNDO": {
+                    expectWords(words, 2);
+                    long id = Long.parseLong(words[1]);
+                    sessions.undo(id);
+                    return "OK " + sessions.withGame(id, GameServer::getStatus);
+                }
+                case "REDO": {
+                    expectWords(words, 2);
+                    long id = Long.parseLong(words[1]);
+                    sessions.redo(id);
+                    return "OK " + sessions.withGame(id, GameServer::getStatus);
+                }
+                case "RESET": {
+                    expectWords(words, 2);
+                    long id = Long.parseLong(words[1]);
+                    sessions.reset(id);
+                    return "OK " + sessions.withGame(id, GameServer::getStatus);
+                }
+                case "BOARD": {
+                    expectWords(words, 2);
+                    return "OK " + sessions.withGame(Long.parseLong(words[1]), GameServer::getBoard);
+                }
+                case "CLOSE": {
+                    expectWords(words, 2);
+                    sessions.close(Long.parseLong(words[1]));
+                    return "OK";
+                }
+                default:
+                    return "ERR Unknown command " + words[0];
+            }
+        } catch (RuntimeException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " arguments to " + words[0]);
+        }
+    }
+
+    private static String getStatus(GameState gameState) {
+        switch (gameState.getWinner()) {
+            case CROSS:
+                return "X_WON";
+            case CIRCLE:
+                return "O_WON";
+            default:
+                return gameState.getIsFull() ? "DRAW" : "PLAYING";
+        }
+    }
+
+    private static String getBoard(GameState gameState) {
+        int numCells = gameState.getGeometry().getNumCells();
+        StringBuilder cells = new StringBuilder(numCells);
+        for (int cell = 0; cell < numCells; cell++) {
+            Player player = gameState.getOccupiedBy(cell);
+            cells.append(player == Player.CROSS ? 'X' : player == Player.CIRCLE ? 'O' : '.');
+        }
+        return cells.toString();
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return named;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> named = parseArgs(args);
+        int port = Integer.parseInt(named.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        long moveMillis = Long.parseLong(named.getOrDefault("move-millis",
+                String.valueOf(SessionManager.DEFAULT_MOVE_MILLIS)));
+        int numAIThreads = Integer.parseInt(named.getOrDefault("ai-threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        GameServer server = new GameServer(port, moveMillis, numAIThreads);
+        if (named.containsKey("compact-after")) {
+            long compactMillis = Long.parseLong(named.get("compact-after"));
+            server.startEviction(compactMillis,
+                    Long.parseLong(named.getOrDefault("spill-after", String.valueOf(10 * compactMillis))),
+                    named.getOrDefault("spill-file", "sessions.spill"));
+        }
+        System.out.println("Serving games on localhost:" + server.getPort());
+        server.serve();
+    }
+}
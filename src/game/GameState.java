@@ -1,21 +1,52 @@
 package game;
 
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 
 /**
- * The GameState class stores the state of the Tic-Tac-Toe game
+ * The GameState class stores the state of the Tic-Tac-Toe game. The board is
+ * size x size and winLength in a row wins, see BoardGeometry; the default is the
+ * standard 3x3 game.
+ *
+ * Occupied locations are kept as one bitboard per player. For every line the number
+ * of pieces of each player is kept up to date on each placement, together with the
+ * number of lines each player completed or needs one more piece on, so detecting a
+ * win or a threat does not need to scan the board.
  */
 class GameState {
+    private final BoardGeometry geometry;
     private Player currentPlayer;
-    private Player[][] occupied;
-
-    private Stack<GameMove> prevMoves;
-    private Stack<GameMove> nextMoves;
+    // Occupied cells of each player, one bit per cell
+    private final long[] crossBits;
+    private final long[] circleBits;
+    private int numOccupied;
+    // The base-3 index of the board, only kept for the standard board
+    private int positionIndex;
+
+    // Pieces of each player on each line, and the number of lines a player completed
+    private final int[] crossLineCounts;
+    private final int[] circleLineCounts;
+    private int crossCompletedLines;
+    private int circleCompletedLines;
+    // Lines a player needs one more piece on and the opponent has no piece on
+    private int crossThreatLines;
+    private int circleThreatLines;
+
+    private final MoveHistory history;
 
     GameState() {
-        occupied = new Player[3][3];
-        prevMoves = new Stack<>();
-        nextMoves = new Stack<>();
+        this(Bitboard.SIZE, Bitboard.SIZE);
+    }
+
+    GameState(int size, int winLength) {
+        geometry = BoardGeometry.of(size, winLength);
+        int numWords = (geometry.getNumCells() + Long.SIZE - 1) / Long.SIZE;
+        crossBits = new long[numWords];
+        circleBits = new long[numWords];
+        crossLineCounts = new int[geometry.getNumLines()];
+        circleLineCounts = new int[geometry.getNumLines()];
+        // A game never has more moves than the board has cells
+        history = new MoveHistory(geometry.getNumCells());
         initGame();
     }
 
@@ -32,16 +63,21 @@ class GameState {
     }
 
     private void clearOccupiedState() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                occupied[i][j] = Player.UNSET;
-            }
-        }
+        Arrays.fill(crossBits, 0L);
+        Arrays.fill(circleBits, 0L);
+        Arrays.fill(crossLineCounts, 0);
+        Arrays.fill(circleLineCounts, 0);
+        crossCompletedLines = 0;
+        circleCompletedLines = 0;
+        // With one in a row every line of the empty board is a threat
+        crossThreatLines = geometry.getWinLength() == 1 ? geometry.getNumLines() : 0;
+        circleThreatLines = crossThreatLines;
+        numOccupied = 0;
+        positionIndex = 0;
     }
 
     private void clearUndoRedoState() {
-        prevMoves.clear();
-        nextMoves.clear();
+        history.clear();
     }
 
     void initGame() {
@@ -50,113 +86,336 @@ class GameState {
         clearUndoRedoState();
     }
 
+    // Sets the player who makes the next move with setMove
+    void setCurrentPlayer(Player player) {
+        currentPlayer = player;
+    }
+
+    // Copies the board and the player to move of another state with the same geometry.
+    // The undo/redo history is not copied, it is cleared.
+    void copyFrom(GameState other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Cannot copy a " + other.getSize() + "x" + other.getSize()
+                    + " game into a " + getSize() + "x" + getSize() + " game");
+        }
+        currentPlayer = other.currentPlayer;
+        System.arraycopy(other.crossBits, 0, crossBits, 0, crossBits.length);
+        System.arraycopy(other.circleBits, 0, circleBits, 0, circleBits.length);
+        System.arraycopy(other.crossLineCounts, 0, crossLineCounts, 0, crossLineCounts.length);
+        System.arraycopy(other.circleLineCounts, 0, circleLineCounts, 0, circleLineCounts.length);
+        crossCompletedLines = other.crossCompletedLines;
+        circleCompletedLines = other.circleCompletedLines;
+        crossThreatLines = other.crossThreatLines;
+        circleThreatLines = other.circleThreatLines;
+        numOccupied = other.numOccupied;
+        positionIndex = other.positionIndex;
+        clearUndoRedoState();
+    }
+
+    BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    int getSize() {
+        return geometry.getSize();
+    }
+
+    int getWinLength() {
+        return geometry.getWinLength();
+    }
+
+    boolean isStandard() {
+        return geometry.isStandard();
+    }
+
+    // Adds sign times the threat the line is to the threat line counts, called with -1
+    // before and with 1 after the counts of the line change
+    private void countThreatLine(int line, int sign) {
+        int threatCount = geometry.getWinLength() - 1;
+        if (circleLineCounts[line] == 0 && crossLineCounts[line] == threatCount) {
+            crossThreatLines += sign;
+        }
+        if (crossLineCounts[line] == 0 && circleLineCounts[line] == threatCount) {
+            circleThreatLines += sign;
+        }
+    }
+
+    void unSetOccupied(int cell) {
+        Player player = getOccupiedBy(cell);
+        if (player == Player.UNSET) {
+            return;
+        }
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        int winLength = geometry.getWinLength();
+        if (player == Player.CROSS) {
+            crossBits[word] &= ~bit;
+            for (int line : geometry.getCellLines(cell)) {
+                countThreatLine(line, -1);
+                if (crossLineCounts[line]-- == winLength) {
+                    crossCompletedLines--;
+                }
+                countThreatLine(line, 1);
+            }
+        } else {
+            circleBits[word] &= ~bit;
+            for (int line : geometry.getCellLines(cell)) {
+                countThreatLine(line, -1);
+                if (circleLineCounts[line]-- == winLength) {
+                    circleCompletedLines--;
+                }
+                countThreatLine(line, 1);
+            }
+        }
+        numOccupied--;
+        if (geometry.isStandard()) {
+            positionIndex -= Bitboard.getIndexDelta(cell, player);
+        }
+    }
+
+    void setOccupied(int cell, Player player) {
+        unSetOccupied(cell);
+        if (player == Player.UNSET) {
+            return;
+        }
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        int winLength = geometry.getWinLength();
+        if (player == Player.CROSS) {
+            crossBits[word] |= bit;
+            for (int line : geometry.getCellLines(cell)) {
+                countThreatLine(line, -1);
+                if (++crossLineCounts[line] == winLength) {
+                    crossCompletedLines++;
+                }
+                countThreatLine(line, 1);
+            }
+        } else {
+            circleBits[word] |= bit;
+            for (int line : geometry.getCellLines(cell)) {
+                countThreatLine(line, -1);
+                if (++circleLineCounts[line] == winLength) {
+                    circleCompletedLines++;
+                }
+                countThreatLine(line, 1);
+            }
+        }
+        numOccupied++;
+        if (geometry.isStandard()) {
+            positionIndex += Bitboard.getIndexDelta(cell, player);
+        }
+    }
+
+    Player getOccupiedBy(int cell) {
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if ((crossBits[word] & bit) != 0) {
+            return Player.CROSS;
+        } else if ((circleBits[word] & bit) != 0) {
+            return Player.CIRCLE;
+        }
+        return Player.UNSET;
+    }
+
+    boolean isOccupied(int cell) {
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        return ((crossBits[word] | circleBits[word]) & bit) != 0;
+    }
+
     void unSetOccupied(GridNumber gridNum) {
-        occupied[gridNum.getRow()][gridNum.getColumn()] = Player.UNSET;
+        unSetOccupied(geometry.getCell(gridNum));
     }
 
     void setOccupied(GridNumber gridNum, Player player) {
-        occupied[gridNum.getRow()][gridNum.getColumn()] = player;
+        setOccupied(geometry.getCell(gridNum), player);
     }
 
     Player getOccupiedBy(GridNumber gridNum) {
-        return occupied[gridNum.getRow()][gridNum.getColumn()];
+        return getOccupiedBy(geometry.getCell(gridNum));
     }
 
     boolean isOccupied(GridNumber gridNum) {
-        return getOccupiedBy(gridNum) != Player.UNSET;
+        return isOccupied(geometry.getCell(gridNum));
     }
 
-    void setMove(GridNumber gridNum) {
-        prevMoves.push(new GameMove(gridNum, currentPlayer));
-        nextMoves.clear();
-        setOccupied(gridNum, currentPlayer);
+    void setMove(int cell) {
+        history.push(cell, currentPlayer);
+        setOccupied(cell, currentPlayer);
         chooseCurrentPlayer();
     }
 
+    void setMove(GridNumber gridNum) {
+        setMove(geometry.getCell(gridNum));
+    }
+
+    private GameMove getGameMove(int move) {
+        return GameMove.of(geometry.getLocation(MoveHistory.getCell(move)), MoveHistory.getPlayer(move));
+    }
+
     boolean canUndo() {
-        return !prevMoves.empty();
+        return history.canUndo();
     }
 
     GameMove getUndoMove() {
-        return prevMoves.peek();
+        if (!history.canUndo()) {
+            throw new EmptyStackException();
+        }
+        return getGameMove(history.peekUndo());
     }
 
     void undo() {
-        if (prevMoves.empty()) {
+        if (!history.canUndo()) {
             return;
         }
 
-        GameMove move = prevMoves.peek();
-        currentPlayer = move.getPlayer();
-        occupied[move.getLocation().getRow()][move.getLocation().getColumn()] = Player.UNSET;
-        nextMoves.push(move);
-        prevMoves.pop();
+        int move = history.undo();
+        currentPlayer = MoveHistory.getPlayer(move);
+        unSetOccupied(MoveHistory.getCell(move));
     }
 
     boolean canRedo() {
-        return !nextMoves.empty();
+        return history.canRedo();
     }
 
     GameMove getRedoMove() {
-        return nextMoves.peek();
+        if (!history.canRedo()) {
+            throw new EmptyStackException();
+        }
+        return getGameMove(history.peekRedo());
     }
 
     void redo() {
-        if (nextMoves.empty()) {
+        if (!history.canRedo()) {
             return;
         }
-        GameMove move = nextMoves.peek();
-        if (move.getPlayer() == Player.CIRCLE) {
+        int move = history.redo();
+        Player player = MoveHistory.getPlayer(move);
+        if (player == Player.CIRCLE) {
             currentPlayer = Player.CROSS;
         } else {
             currentPlayer = Player.CIRCLE;
         }
-        occupied[move.getLocation().getRow()][move.getLocation().getColumn()] = move.getPlayer();
+        setOccupied(MoveHistory.getCell(move), player);
+    }
 
-        prevMoves.push(move);
-        nextMoves.pop();
+    // Copies the cells of the moves played so far, oldest first, into cells and returns
+    // their number. Undone moves are not included.
+    int getMoves(int[] cells) {
+        int numMoves = history.getNumUndo();
+        for (int i = 0; i < numMoves; i++) {
+            cells[i] = MoveHistory.getCell(history.get(i));
+        }
+        return numMoves;
     }
 
-    private boolean checkComboForWin(Player player, Player m1, Player m2, Player m3) {
-        return player == m1 && player == m2 && player == m3;
+    // Like getMoves, but followed by the cells of the undone moves in the order redo()
+    // replays them. Returns the number of all recorded moves.
+    int getRecordedMoves(int[] cells) {
+        int numMoves = history.getNumUndo() + history.getNumRedo();
+        for (int i = 0; i < numMoves; i++) {
+            cells[i] = MoveHistory.getCell(history.get(i));
+        }
+        return numMoves;
     }
 
-    private boolean getPlayerHasDiagWin(Player player) {
-        return checkComboForWin(player, occupied[0][0], occupied[1][1], occupied[2][2]) ||
-                checkComboForWin(player, occupied[0][2], occupied[1][1], occupied[2][0]);
+    int getNumUndone() {
+        return history.getNumRedo();
     }
 
-    private boolean getPlayerHasColWin(Player player) {
-        for (int j = 0; j < 3; j++) {
-            if (checkComboForWin(player, occupied[0][j], occupied[1][j], occupied[2][j])) {
-                return true;
-            }
+    // Returns the number of pieces player has on line, see BoardGeometry
+    int getLineCount(Player player, int line) {
+        if (player == Player.CROSS) {
+            return crossLineCounts[line];
+        } else if (player == Player.CIRCLE) {
+            return circleLineCounts[line];
         }
-        return false;
+        return geometry.getWinLength() - crossLineCounts[line] - circleLineCounts[line];
     }
 
-    private boolean getPlayerHasRowWin(Player player) {
-        for (int i = 0; i < 3; i++) {
-            if (checkComboForWin(player, occupied[i][0], occupied[i][1], occupied[i][2])) {
-                return true;
-            }
+    // Returns the number of lines player needs one more piece on to win, with no piece
+    // of the opponent on them; on the standard board these are the open twos
+    int getNumThreats(Player player) {
+        if (player == Player.CROSS) {
+            return crossThreatLines;
+        } else if (player == Player.CIRCLE) {
+            return circleThreatLines;
         }
-        return false;
+        return 0;
     }
 
-    private boolean getPlayerHasWin (Player player) {
-        return getPlayerHasRowWin(player) || getPlayerHasColWin(player) || getPlayerHasDiagWin(player);
+    // Returns the number of new threats, see getNumThreats, player makes by moving to
+    // the free cell: the lines through cell where player is two pieces short of a win
+    // and the opponent has no piece.
+    int getNumThreatsCreatedBy(Player player, int cell) {
+        assert(player != Player.UNSET && !isOccupied(cell));
+        int[] playerCounts = player == Player.CROSS ? crossLineCounts : circleLineCounts;
+        int[] opponentCounts = player == Player.CROSS ? circleLineCounts : crossLineCounts;
+        int count = geometry.getWinLength() - 2;
+        int numThreats = 0;
+        for (int line : geometry.getCellLines(cell)) {
+            if (playerCounts[line] == count && opponentCounts[line] == 0) {
+                numThreats++;
+            }
+        }
+        return numThreats;
     }
 
-    boolean getIsFull() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (occupied[i][j] == Player.UNSET) {
-                    return false;
+    // Returns a free cell that wins the game for player, or -1 if there is none. The
+    // lines are searched in BoardGeometry order, rows first.
+    int getWinningCell(Player player) {
+        if (getNumThreats(player) == 0) {
+            return -1;
+        }
+        int[] playerCounts = player == Player.CROSS ? crossLineCounts : circleLineCounts;
+        int[] opponentCounts = player == Player.CROSS ? circleLineCounts : crossLineCounts;
+        int threatCount = geometry.getWinLength() - 1;
+        for (int line = 0; line < playerCounts.length; line++) {
+            if (playerCounts[line] == threatCount && opponentCounts[line] == 0) {
+                for (int cell : geometry.getLineCells(line)) {
+                    if (!isOccupied(cell)) {
+                        return cell;
+                    }
                 }
             }
         }
-        return true;
+        return -1;
+    }
+
+    // The mask of UNSET is the set of free locations. Only boards of up to 32 cells,
+    // such as the standard board, fit in a mask.
+    int getMask(Player player) {
+        assert(geometry.getNumCells() <= Integer.SIZE);
+        int allCells = (int) ((1L << geometry.getNumCells()) - 1);
+        if (player == Player.CROSS) {
+            return (int) crossBits[0];
+        } else if (player == Player.CIRCLE) {
+            return (int) circleBits[0];
+        }
+        return ~(int) (crossBits[0] | circleBits[0]) & allCells;
+    }
+
+    int getNumOccupied() {
+        return numOccupied;
+    }
+
+    // The player to move next as implied by the board, CROSS always moves first
+    Player getPlayerToMove() {
+        int numCircles = 0;
+        for (long word : circleBits) {
+            numCircles += Long.bitCount(word);
+        }
+        return numOccupied == 2 * numCircles ? Player.CROSS : Player.CIRCLE;
+    }
+
+    // The base-3 index of the board, see Bitboard. Only kept for the standard board.
+    int getPositionIndex() {
+        assert(geometry.isStandard());
+        return positionIndex;
+    }
+
+    boolean getIsFull() {
+        return numOccupied == geometry.getNumCells();
     }
 
     boolean getGameEnded() {
@@ -167,15 +426,21 @@ class GameState {
         return getWinner() != Player.UNSET;
     }
 
+    boolean isWon(Player player) {
+        if (player == Player.CROSS) {
+            return crossCompletedLines > 0;
+        } else if (player == Player.CIRCLE) {
+            return circleCompletedLines > 0;
+        }
+        return false;
+    }
+
     Player getWinner() {
-        if (getPlayerHasWin(Player.CIRCLE)) {
+        if (isWon(Player.CIRCLE)) {
             return Player.CIRCLE;
-        } else if (getPlayerHasWin(Player.CROSS)) {
+        } else if (isWon(Player.CROSS)) {
             return Player.CROSS;
         }
         return Player.UNSET;
     }
-
-
-
 }
@@ -1,22 +1,45 @@
 package game;
 
 /**
- * The GridNumber class is used to represent a location.
+ * The GridNumber class is used to represent a location. Instances are interned, use
+ * of() to look up the canonical object of a location on boards of up to
+ * MAX_SIZE x MAX_SIZE.
  */
 class GridNumber {
+    static final int MAX_SIZE = 19;
+
+    private static final GridNumber INVALID = new GridNumber(-1, -1);
+    private static final GridNumber[][] CELLS;
+
     private int row;
     private int column;
     private final int hash;
 
-    GridNumber(int r, int c) {
+    static {
+        CELLS = new GridNumber[MAX_SIZE][MAX_SIZE];
+        for (int r = 0; r < MAX_SIZE; r++) {
+            for (int c = 0; c < MAX_SIZE; c++) {
+                CELLS[r][c] = new GridNumber(r, c);
+            }
+        }
+    }
+
+    private GridNumber(int r, int c) {
         row = r;
         column = c;
         int sum = r+c;
         hash = sum*(sum+1)/2 + r;
     }
 
+    static GridNumber of(int r, int c) {
+        if (r < 0 || c < 0 || r >= CELLS.length || c >= CELLS[r].length) {
+            return INVALID;
+        }
+        return CELLS[r][c];
+    }
+
     static GridNumber getInvalidObject() {
-        return new GridNumber(-1, -1);
+        return INVALID;
     }
 
     boolean isValid() {
@@ -51,4 +74,4 @@ class GridNumber {
     public int hashCode() {
         return hash;
     }
-}
\ No newline at end of file
+}
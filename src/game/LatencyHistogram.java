@@ -0,0 +1,88 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts durations in nanoseconds in log-linear buckets, in
+ * the style of HdrHistogram: values below 32 have a bucket each, and every higher power
+ * of two is split into 32 buckets, so a value is known to within about 3%. Recording
+ * is lock free and may be done from any number of threads.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    static int getBucket(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((value >>> shift) & (SUB_COUNT - 1));
+    }
+
+    // Returns the lowest value counted in bucket
+    static long getBucketValue(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        return (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+    }
+
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(getBucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    // Returns the value percentile percent of the recorded values are at most, to
+    // within the bucket precision; 0 if nothing was recorded
+    long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            total += counts.get(bucket);
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= target) {
+                return getBucketValue(bucket);
+            }
+        }
+        return 0;
+    }
+
+    // Not atomic with respect to concurrent recording
+    void reset() {
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,309 @@
+package game;
+
+/**
+ * The LineSearchStrategy class plays on boards of any size and win length. It runs a
+ * depth-limited negamax search with alpha-beta pruning directly on the GameState,
+ * using its incremental line counts both to detect wins and to score positions.
+ *
+ * To keep the search affordable on large boards, only free cells next to a piece are
+ * considered, they are ordered by how much they extend or block open lines, and only
+ * the best maxBreadth of them are searched at each node.
+ *
+ * A search can also be given a node budget and a time budget. It deepens one ply at a
+ * time and stops as soon as either budget runs out, keeping the best move found by the
+ * root moves it finished searching, so it always answers within its budget.
+ */
+class LineSearchStrategy implements MoveStrategy {
+    // A win scores WIN_SCORE minus the search ply, so faster wins score higher
+    private static final int WIN_SCORE = 1 << 30;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // Candidates must be within this many rows and columns of an occupied cell
+    private static final int NEIGHBORHOOD = 2;
+    // The clock is read once every so many nodes
+    private static final int CLOCK_INTERVAL = 64;
+
+    private GameState gameState;
+    private final BoardGeometry geometry;
+    private int maxDepth;
+    private int maxBreadth;
+    private long maxNodes = Long.MAX_VALUE;
+    private long maxNanos = Long.MAX_VALUE;
+    // The budget of the current search, and whether it has run out
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private int completedDepth;
+    // Weight of an open line by the number of pieces on it
+    private final int[] lineWeights;
+
+    // Scratch space for the candidates of each ply, reused across searches
+    private int[][] candidates;
+    private int[][] candidateScores;
+
+    private long numNodes;
+    private long numNanos;
+    private long numSearches;
+
+    LineSearchStrategy(GameState aGameState) {
+        this(aGameState, getDefaultDepth(aGameState.getGeometry()), getDefaultBreadth(aGameState.getGeometry()));
+    }
+
+    LineSearchStrategy(GameState aGameState, int aMaxDepth, int aMaxBreadth) {
+        gameState = aGameState;
+        geometry = aGameState.getGeometry();
+        lineWeights = new int[geometry.getWinLength() + 1];
+        for (int count = 1; count <= geometry.getWinLength(); count++) {
+            lineWeights[count] = 1 << Math.min(3 * count, 24);
+        }
+        setMaxDepth(aMaxDepth);
+        maxBreadth = aMaxBreadth;
+    }
+
+    // Searches the standard board to the end and larger boards a few plies deep
+    static int getDefaultDepth(BoardGeometry geometry) {
+        if (geometry.getNumCells() <= Bitboard.NUM_CELLS) {
+            return geometry.getNumCells();
+        } else if (geometry.getNumCells() <= 16) {
+            return 6;
+        }
+        return 4;
+    }
+
+    static int getDefaultBreadth(BoardGeometry geometry) {
+        return geometry.getNumCells() <= 16 ? geometry.getNumCells() : 12;
+    }
+
+    void setMaxDepth(int aMaxDepth) {
+        maxDepth = aMaxDepth;
+        candidates = new int[maxDepth + 1][geometry.getNumCells()];
+        candidateScores = new int[maxDepth + 1][geometry.getNumCells()];
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    void setMaxBreadth(int aMaxBreadth) {
+        maxBreadth = aMaxBreadth;
+    }
+
+    int getMaxBreadth() {
+        return maxBreadth;
+    }
+
+    // Limits the nodes of one search, Long.MAX_VALUE for no limit
+    void setMaxNodes(long aMaxNodes) {
+        maxNodes = aMaxNodes;
+    }
+
+    long getMaxNodes() {
+        return maxNodes;
+    }
+
+    // Limits the time of one search, Long.MAX_VALUE for no limit
+    void setMaxMillis(long maxMillis) {
+        maxNanos = maxMillis >= Long.MAX_VALUE / 1_000_000 ? Long.MAX_VALUE : maxMillis * 1_000_000;
+    }
+
+    // Returns the depth the last search completed, 0 if the budget ran out during depth 1
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        long start = System.nanoTime();
+        int cell = search(gameState.getPlayerToMove());
+        numNanos += System.nanoTime() - start;
+        numSearches++;
+        if (cell < 0) {
+            return GridNumber.getInvalidObject();
+        }
+        return geometry.getLocation(cell);
+    }
+
+    private static Player getOpponent(Player player) {
+        return player == Player.CROSS ? Player.CIRCLE : Player.CROSS;
+    }
+
+    private int search(Player player) {
+        if (gameState.getGameEnded()) {
+            return -1;
+        }
+        nodeLimit = maxNodes == Long.MAX_VALUE ? Long.MAX_VALUE : numNodes + maxNodes;
+        deadline = maxNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + maxNanos;
+        aborted = false;
+        completedDepth = 0;
+        int numCandidates = generateCandidates(player, 0);
+        int[] moves = candidates[0];
+        int bestMove = moves[0];
+        int depthLimit = Math.min(maxDepth, geometry.getNumCells() - gameState.getNumOccupied());
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = bestMove;
+            // Search the best move of the previous iteration first
+            for (int i = -1; i < numCandidates; i++) {
+                int cell = (i < 0) ? bestMove : moves[i];
+                if (i >= 0 && cell == bestMove) {
+                    continue;
+                }
+                gameState.setOccupied(cell, player);
+                int score = -negamax(getOpponent(player), depth - 1, 1, -INFINITY, -alpha);
+                gameState.unSetOccupied(cell);
+                if (aborted) {
+                    // The score of an unfinished search means nothing
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = cell;
+                }
+            }
+            bestMove = iterationBest;
+            if (aborted) {
+                break;
+            }
+            completedDepth = depth;
+            if (alpha >= WIN_SCORE - geometry.getNumCells()) {
+                // A forced win was found, deeper searches cannot improve on it
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    // Returns the score of the position for player, who is to move
+    private int negamax(Player player, int depth, int ply, int alpha, int beta) {
+        numNodes++;
+        if (numNodes >= nodeLimit
+                || (numNodes % CLOCK_INTERVAL == 0 && deadline != Long.MAX_VALUE && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (gameState.getHasWinner()) {
+            // Only the player who just moved can have won
+            return -(WIN_SCORE - ply);
+        } else if (gameState.getIsFull()) {
+            return 0;
+        } else if (depth == 0) {
+            return evaluate(player);
+        }
+        int numCandidates = generateCandidates(player, ply);
+        int[] moves = candidates[ply];
+        int bestScore = -INFINITY;
+        for (int i = 0; i < numCandidates; i++) {
+            int cell = moves[i];
+            gameState.setOccupied(cell, player);
+            int score = -negamax(getOpponent(player), depth - 1, ply + 1, -beta, -alpha);
+            gameState.unSetOccupied(cell);
+            if (score > bestScore) {
+                bestScore = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return bestScore;
+    }
+
+    // Scores the position for player by the open lines of both players
+    private int evaluate(Player player) {
+        Player opponent = getOpponent(player);
+        int score = 0;
+        for (int line = 0; line < geometry.getNumLines(); line++) {
+            int own = gameState.getLineCount(player, line);
+            int other = gameState.getLineCount(opponent, line);
+            if (other == 0) {
+                score += lineWeights[own];
+            } else if (own == 0) {
+                score -= lineWeights[other];
+            }
+        }
+        return score;
+    }
+
+    // Scores a free cell by the open lines through it it would extend for player and
+    // block for the opponent
+    private int getMoveScore(Player player, Player opponent, int cell) {
+        int score = 0;
+        for (int line : geometry.getCellLines(cell)) {
+            int own = gameState.getLineCount(player, line);
+            int other = gameState.getLineCount(opponent, line);
+            if (other == 0) {
+                // Extending our own line counts a bit more than blocking the same line
+                score += lineWeights[own + 1] + lineWeights[own];
+            } else if (own == 0) {
+                score += lineWeights[other + 1];
+            }
+        }
+        return score;
+    }
+
+    private boolean isNearPiece(int cell) {
+        int size = geometry.getSize();
+        int row = cell / size;
+        int col = cell % size;
+        for (int r = Math.max(0, row - NEIGHBORHOOD); r <= Math.min(size - 1, row + NEIGHBORHOOD); r++) {
+            for (int c = Math.max(0, col - NEIGHBORHOOD); c <= Math.min(size - 1, col + NEIGHBORHOOD); c++) {
+                if (gameState.isOccupied(geometry.getCell(r, c))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Fills candidates[ply] with the best moves in descending order of score and
+    // returns how many there are
+    private int generateCandidates(Player player, int ply) {
+        int[] moves = candidates[ply];
+        int[] scores = candidateScores[ply];
+        Player opponent = getOpponent(player);
+        boolean isEmpty = gameState.getNumOccupied() == 0;
+        boolean isSmall = geometry.getNumCells() <= Bitboard.NUM_CELLS;
+        int numMoves = 0;
+        for (int cell = 0; cell < geometry.getNumCells(); cell++) {
+            if (gameState.isOccupied(cell) || (!isEmpty && !isSmall && !isNearPiece(cell))) {
+                continue;
+            }
+            int score = getMoveScore(player, opponent, cell);
+            // Insertion sort, keeping at most maxBreadth moves
+            int i = Math.min(numMoves, maxBreadth - 1);
+            if (i == maxBreadth - 1 && numMoves == maxBreadth && scores[i] >= score) {
+                continue;
+            }
+            while (i > 0 && scores[i - 1] < score) {
+                moves[i] = moves[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            moves[i] = cell;
+            scores[i] = score;
+            numMoves = Math.min(numMoves + 1, maxBreadth);
+        }
+        return numMoves;
+    }
+
+    long getNumNodes() {
+        return numNodes;
+    }
+
+    long getNumSearches() {
+        return numSearches;
+    }
+
+    double getNodesPerSecond() {
+        return numNanos == 0 ? 0.0 : numNodes * 1e9 / numNanos;
+    }
+
+    void resetStats() {
+        numNodes = 0;
+        numNanos = 0;
+        numSearches = 0;
+    }
+}
@@ -1,6 +1,7 @@
 package game;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
@@ -9,47 +10,62 @@ import javafx.stage.Stage;
 import javafx.scene.control.Button;
 import javafx.scene.layout.StackPane;
 
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 /**
  * The Main class creates the JavaFX implementation of the Tic-Tac-Toe application.
+ * The board size and win length can be set with --size=N and --win=K, the default
+ * is the standard 3x3 game. The AI plays at the AIPlayer.Difficulty given with
+ * --difficulty=LEVEL, PERFECT by default, and the Level button switches to the next
+ * level between moves.
+ *
+ * The AI moves are computed by an AsyncAIPlayer and applied back on the JavaFX
+ * application thread, so the window stays responsive while the AI thinks. Reset and
+ * Undo cancel a move that is still being computed.
+ *
+ * The board is one BoardCanvas rather than a Button per cell. The Canvas is brought
+ * up to date with the GameState once per user action or AI move, and redraws only the
+ * cells that changed, so large boards stay responsive.
  */
 public class Main extends Application {
-    private static final int PLAY_BUTTON_SIZE = 200;
+    private static final int CELL_SIZE = 200;
+    private static final int MIN_CELL_SIZE = 40;
     private static final String APP_TITLE = "Simple Tic-Tac-Toe";
 
     private ButtonClickHandler buttonClickHandler;
     private GameState gameState;
-    private AIPlayer aiPlayer;
+    private AsyncAIPlayer aiPlayer;
+    private CompletableFuture<GridNumber> aiMove;
+    private final Random random = new Random();
 
-    private Button[][] playBs;
+    private BoardCanvas board;
     private Button resetB;
     private Button undoB;
     private Button redoB;
+    private Button levelB;
 
     public static void main(String[] args) {
         launch(args);
     }
 
+    private static int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
     // Create all the buttons for the application
     private Pane createButtonGroup() {
-        playBs = new Button[3][3];
-        HBox[] playRows = new HBox[3];
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                playBs[i][j] = new Button();
-                playBs[i][j].setPrefSize(PLAY_BUTTON_SIZE, PLAY_BUTTON_SIZE);
-                playBs[i][j].setOnAction(buttonClickHandler);
-                playBs[i][j].setStyle("-fx-font-size: 12em; -fx-text-overrun: clip;");
-            }
-        }
-
-        for (int k = 0; k < 3; k++) {
-            playRows[k] = new HBox(playBs[k][0], playBs[k][1], playBs[k][2]);
-            playRows[k].setStyle("-fx-spacing: 10");
+        int size = gameState.getSize();
+        // Scale the cells down so larger boards fit on screen
+        int cellSize = Math.max(MIN_CELL_SIZE, CELL_SIZE * 3 / size);
+        board = new BoardCanvas(size, cellSize);
+        board.setOnMouseClicked(event -> play(board.getLocation(event.getX(), event.getY())));
 
-        }
         resetB = new Button("Reset");
         resetB.setStyle("-fx-font-size: 2em;");
         resetB.setOnAction(buttonClickHandler);
@@ -62,12 +78,14 @@ public class Main extends Application {
         redoB.setStyle("-fx-font-size: 2em;");
         redoB.setOnAction(buttonClickHandler);
 
-        HBox buttonRow = new HBox(resetB, undoB, redoB);
+        levelB = new Button(getLevelText());
+        levelB.setStyle("-fx-font-size: 2em;");
+        levelB.setOnAction(buttonClickHandler);
+
+        HBox buttonRow = new HBox(resetB, undoB, redoB, levelB);
         buttonRow.setStyle("-fx-spacing: 40; -fx-padding: 0 0 0 20;");
 
-        VBox playGridInner = new VBox(playRows[0], playRows[1], playRows[2]);
-        playGridInner.setStyle("-fx-spacing: 10; -fx-background-color: black;");
-        VBox playGrid = new VBox(playGridInner);
+        VBox playGrid = new VBox(board);
         playGrid.setStyle(" -fx-padding: 20;");
 
         VBox gameLayout = new VBox(buttonRow, playGrid);
@@ -79,8 +97,14 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) throws Exception{
         primaryStage.setTitle(APP_TITLE );
-        gameState = new GameState();
-        aiPlayer = new AIPlayer(gameState);
+        Map<String, String> parameters = getParameters().getNamed();
+        int size = getIntParameter(parameters, "size", 3);
+        gameState = new GameState(size, getIntParameter(parameters, "win", size));
+        aiPlayer = new AsyncAIPlayer(gameState);
+        String difficulty = parameters.getOrDefault("difficulty", AIPlayer.Difficulty.PERFECT.name());
+        aiPlayer.setDifficulty(AIPlayer.Difficulty.valueOf(difficulty.toUpperCase()));
+        // Metrics can be switched on over JMX while playing
+        AIMetrics.registerMBean();
         buttonClickHandler = new ButtonClickHandler(this);
         Pane layout = createButtonGroup();
         Scene scene = new Scene(layout);
@@ -88,9 +112,9 @@ public class Main extends Application {
         primaryStage.show();
     }
 
-    boolean isPlayButton(Button b) {
-        GridNumber gNum = getPlayButtonCoordinate(b);
-        return gNum.isValid();
+    @Override
+    public void stop() {
+        aiPlayer.shutdown();
     }
 
     boolean isResetButton(Button b) {
@@ -105,9 +129,24 @@ public class Main extends Application {
         return (redoB == b);
     }
 
-    private boolean isOccupied(Button b) {
-        GridNumber gridNum = getPlayButtonCoordinate(b);
-        return gameState.isOccupied(gridNum);
+    boolean isLevelButton(Button b) {
+        return (levelB == b);
+    }
+
+    private String getLevelText() {
+        return "Level: " + aiPlayer.getDifficulty();
+    }
+
+    // Switches the AI to the next difficulty, wrapping around after PERFECT
+    void nextLevel() {
+        // Only between moves; a search cancelled by reset or undo may still be running,
+        // and the AsyncAIPlayer applies the change once it has finished
+        if (aiMove != null) {
+            return;
+        }
+        AIPlayer.Difficulty[] levels = AIPlayer.Difficulty.values();
+        aiPlayer.setDifficulty(levels[(aiPlayer.getDifficulty().ordinal() + 1) % levels.length]);
+        levelB.setText(getLevelText());
     }
 
     private boolean handleEndedGame() {
@@ -128,91 +167,96 @@ public class Main extends Application {
         return gameEnded;
     }
 
-    private Button getPlayButton(GridNumber move) {
-        return playBs[move.getRow()][move.getColumn()];
-    }
-
-
-    void play(Button b) {
-        if (isOccupied(b)) {
+    void play(GridNumber humanMove) {
+        // The board is locked until the AI has answered the last move
+        if (!humanMove.isValid() || aiMove != null || gameState.isOccupied(humanMove)) {
             return;
         }
-        GridNumber humanMove = getPlayButtonCoordinate(b);
         gameState.setMove(humanMove);
-        b.setText("X");
+        board.sync(gameState);
 
         boolean gameEnded = handleEndedGame();
         if (gameEnded) {
             return;
         }
+        requestAIMove(humanMove);
+    }
 
+    private void requestAIMove(GridNumber humanMove) {
         // Slow down game play by adding a random wait before
-        // responding.
-        try {
-            Random random = new Random();
-            Thread.sleep(random.nextInt(250) + 50);
-        } catch (Exception e) {
-            // do nothing
-        }
+        // responding, without blocking the application thread.
+        CompletableFuture<GridNumber> future = aiPlayer.requestMove(gameState, humanMove, random.nextInt(250) + 50);
+        aiMove = future;
+        future.whenComplete((move, error) -> Platform.runLater(() -> applyAIMove(future, move, error)));
+    }
 
-        GridNumber aiMove = aiPlayer.getGameMove(humanMove);
-        assert(aiMove.isValid() && !gameState.isOccupied(aiMove));
-        gameState.setMove(aiMove);
-        Button aiMoveB = getPlayButton(aiMove);
-        aiMoveB.setText("O");
+    // Runs on the application thread once the AI move requested by future is known
+    private void applyAIMove(CompletableFuture<GridNumber> future, GridNumber move, Throwable error) {
+        if (aiMove != future) {
+            // Cancelled by reset or undo, the game has moved on
+            return;
+        }
+        aiMove = null;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            throw new IllegalStateException("AI player failed", cause);
+        }
+        assert(move.isValid() && !gameState.isOccupied(move));
+        gameState.setMove(move);
+        board.sync(gameState);
 
         handleEndedGame();
     }
 
-    private GridNumber getPlayButtonCoordinate (Button b) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (playBs[i][j] == b) {
-                    return new GridNumber(i, j);
-                }
-            }
+    // Cancels the AI move being computed, returns whether there was one
+    private boolean cancelAIMove() {
+        if (aiMove == null) {
+            return false;
         }
-        return new GridNumber(-1, -1);
+        aiPlayer.cancel();
+        aiMove = null;
+        return true;
     }
 
     void reset() {
+        cancelAIMove();
         gameState.initGame();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                playBs[i][j].setText(null);
-            }
-        }
-    }
-
-    private void undoImpl() {
-        GameMove move = gameState.getUndoMove();
-        playBs[move.getLocation().getRow()][move.getLocation().getColumn()].setText(null);
-        gameState.undo();
+        board.clear();
     }
 
     void undo() {
         if (!gameState.canUndo()) {
             return;
         }
-        undoImpl();
-        undoImpl();
-    }
-
-    private void redoImpl() {
-        GameMove move = gameState.getRedoMove();
-        if (move.getPlayer() == Player.CIRCLE) {
-            playBs[move.getLocation().getRow()][move.getLocation().getColumn()].setText("O");
+        // Without an AI answer yet, only the human move is taken back
+        if (cancelAIMove()) {
+            gameState.undo();
         } else {
-            playBs[move.getLocation().getRow()][move.getLocation().getColumn()].setText("X");
+            gameState.undo();
+            gameState.undo();
         }
-        gameState.redo();
+        // Both cells are drawn in one redraw
+        board.sync(gameState);
     }
 
     void redo() {
-        if (!gameState.canRedo()) {
+        if (!gameState.canRedo() || aiMove != null) {
             return;
         }
-        redoImpl();
-        redoImpl();
+        GridNumber humanMove = gameState.getRedoMove().getLocation();
+        gameState.redo();
+        // A human move taken back before the AI answered has no answer to redo
+        if (gameState.canRedo() && gameState.getRedoMove().getPlayer() == Player.CIRCLE) {
+            gameState.redo();
+        }
+        // Both cells are drawn in one redraw
+        board.sync(gameState);
+        // The redone moves may end the game, whichever player made the last one
+        if (!handleEndedGame() && gameState.getPlayerToMove() == Player.CIRCLE) {
+            requestAIMove(humanMove);
+        }
     }
 }
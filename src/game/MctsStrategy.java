@@ -0,0 +1,351 @@
+package game;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The MctsStrategy class plays on boards of any size with Monte Carlo tree search:
+ * UCT selection, expansion of all moves of a node at once, and rollouts that play
+ * random moves but always take an immediate win or block an immediate loss.
+ *
+ * The search is parallelized at the root: each thread grows its own tree from the same
+ * position and the visit counts of the root moves are summed at the end, so threads
+ * share nothing while searching. The nodes of a tree live in primitive arrays that
+ * are allocated once and reused by every search, so no object is created per node.
+ * A search stops after maxIterations playouts in total or after maxMillis, whichever
+ * comes first.
+ */
+class MctsStrategy implements MoveStrategy {
+    static final int DEFAULT_MAX_NODES = 1 << 18;
+    static final long DEFAULT_MAX_MILLIS = 1000;
+    private static final double EXPLORATION = Math.sqrt(2);
+    // The deadline is checked once every so many playouts
+    private static final int CLOCK_INTERVAL = 64;
+
+    private GameState gameState;
+    private final BoardGeometry geometry;
+    private final long seed;
+    private int numThreads;
+    private long maxIterations;
+    private long maxMillis;
+    private Worker[] workers;
+    private final int[] visitsByCell;
+
+    private long numPlayouts;
+    private long numNanos;
+    private long numSearches;
+
+    MctsStrategy(GameState aGameState) {
+        this(aGameState, Runtime.getRuntime().availableProcessors(),
+                getDefaultIterations(aGameState.getGeometry()), DEFAULT_MAX_MILLIS, new Random().nextLong());
+    }
+
+    MctsStrategy(GameState aGameState, int aNumThreads, long aMaxIterations, long aMaxMillis, long aSeed) {
+        gameState = aGameState;
+        geometry = aGameState.getGeometry();
+        seed = aSeed;
+        maxIterations = aMaxIterations;
+        maxMillis = aMaxMillis;
+        visitsByCell = new int[geometry.getNumCells()];
+        setNumThreads(aNumThreads);
+    }
+
+    static long getDefaultIterations(BoardGeometry geometry) {
+        return geometry.getNumCells() <= Bitboard.NUM_CELLS ? 20000 : 100000;
+    }
+
+    void setNumThreads(int aNumThreads) {
+        if (aNumThreads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + aNumThreads);
+        }
+        numThreads = aNumThreads;
+        // The node pools are allocated by the first search
+        workers = null;
+    }
+
+    int getNumThreads() {
+        return numThreads;
+    }
+
+    void setMaxIterations(long aMaxIterations) {
+        maxIterations = aMaxIterations;
+    }
+
+    long getMaxIterations() {
+        return maxIterations;
+    }
+
+    void setMaxMillis(long aMaxMillis) {
+        maxMillis = aMaxMillis;
+    }
+
+    long getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        long start = System.nanoTime();
+        int cell = search(start + maxMillis * 1_000_000);
+        numNanos += System.nanoTime() - start;
+        numSearches++;
+        if (cell < 0) {
+            return GridNumber.getInvalidObject();
+        }
+        return geometry.getLocation(cell);
+    }
+
+    private static Player getOpponent(Player player) {
+        return player == Player.CROSS ? Player.CIRCLE : Player.CROSS;
+    }
+
+    private int search(long deadline) {
+        if (gameState.getGameEnded()) {
+            return -1;
+        }
+        // Take a win or block a loss without searching
+        Player player = gameState.getPlayerToMove();
+        int forced = gameState.getWinningCell(player);
+        if (forced < 0) {
+            forced = gameState.getWinningCell(getOpponent(player));
+        }
+        if (forced >= 0) {
+            return forced;
+        }
+
+        if (workers == null) {
+            workers = new Worker[numThreads];
+            for (int i = 0; i < numThreads; i++) {
+                workers[i] = new Worker(geometry, DEFAULT_MAX_NODES, seed * 31 + i);
+            }
+        }
+        Worker[] workers = this.workers;
+        long iterationsPerWorker = Math.max(1, maxIterations / numThreads);
+        Future<?>[] futures = new Future<?>[numThreads - 1];
+        for (int i = 1; i < numThreads; i++) {
+            Worker worker = workers[i];
+            futures[i - 1] = ForkJoinPool.commonPool().submit(
+                    () -> worker.search(gameState, iterationsPerWorker, deadline));
+        }
+        workers[0].search(gameState, iterationsPerWorker, deadline);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while searching", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search failed", e.getCause());
+            }
+        }
+
+        Arrays.fill(visitsByCell, 0);
+        for (Worker worker : workers) {
+            worker.addRootVisits(visitsByCell);
+            numPlayouts += worker.numPlayouts;
+        }
+        int bestCell = -1;
+        for (int cell = 0; cell < visitsByCell.length; cell++) {
+            if (!gameState.isOccupied(cell) && (bestCell < 0 || visitsByCell[cell] > visitsByCell[bestCell])) {
+                bestCell = cell;
+            }
+        }
+        return bestCell;
+    }
+
+    long getNumPlayouts() {
+        return numPlayouts;
+    }
+
+    long getNumSearches() {
+        return numSearches;
+    }
+
+    double getPlayoutsPerSecond() {
+        return numNanos == 0 ? 0.0 : numPlayouts * 1e9 / numNanos;
+    }
+
+    void resetStats() {
+        numPlayouts = 0;
+        numNanos = 0;
+        numSearches = 0;
+    }
+
+    /**
+     * The Worker class grows one search tree on its own copy of the game. Node i has
+     * the move that leads to it, its visit count and the total result of its playouts
+     * for the player who made that move; its children are the numChildren nodes
+     * starting at firstChild.
+     */
+    private static final class Worker {
+        private final GameState state;
+        private final Random random;
+        private final int maxNodes;
+        private final int[] moves;
+        private final int[] firstChild;
+        private final int[] numChildren;
+        private final int[] visits;
+        private final float[] results;
+        private int numNodes;
+
+        // The nodes of the current path and the cells set during one playout
+        private final int[] path;
+        private final int[] setCells;
+        private final int[] freeCells;
+        private long numPlayouts;
+
+        Worker(BoardGeometry geometry, int aMaxNodes, long aSeed) {
+            int numCells = geometry.getNumCells();
+            state = new GameState(geometry.getSize(), geometry.getWinLength());
+            random = new Random(aSeed);
+            maxNodes = aMaxNodes;
+            moves = new int[maxNodes];
+            firstChild = new int[maxNodes];
+            numChildren = new int[maxNodes];
+            visits = new int[maxNodes];
+            results = new float[maxNodes];
+            path = new int[numCells + 1];
+            setCells = new int[numCells];
+            freeCells = new int[numCells];
+        }
+
+        private int newNode(int move) {
+            int node = numNodes++;
+            moves[node] = move;
+            firstChild[node] = 0;
+            numChildren[node] = 0;
+            visits[node] = 0;
+            results[node] = 0;
+            return node;
+        }
+
+        void search(GameState root, long iterations, long deadline) {
+            state.copyFrom(root);
+            Player rootPlayer = state.getPlayerToMove();
+            numNodes = 0;
+            numPlayouts = 0;
+            newNode(-1);
+            for (long i = 0; i < iterations; i++) {
+                if (i % CLOCK_INTERVAL == CLOCK_INTERVAL - 1 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                playout(rootPlayer);
+            }
+        }
+
+        private void playout(Player rootPlayer) {
+            int node = 0;
+            int depth = 0;
+            int numSet = 0;
+            Player toMove = rootPlayer;
+            path[0] = 0;
+
+            // Select down to a leaf, then expand it once it has been visited
+            while (true) {
+                if (numChildren[node] == 0) {
+                    if (state.getGameEnded() || (visits[node] == 0 && node != 0) || !expand(node)) {
+                        break;
+                    }
+                }
+                node = selectChild(node);
+                state.setOccupied(moves[node], toMove);
+                setCells[numSet++] = moves[node];
+                path[++depth] = node;
+                toMove = getOpponent(toMove);
+            }
+
+            // Play the rest of the game out
+            int numFree = 0;
+            int numCells = freeCells.length;
+            if (!state.getGameEnded()) {
+                for (int cell = 0; cell < numCells; cell++) {
+                    if (!state.isOccupied(cell)) {
+                        freeCells[numFree++] = cell;
+                    }
+                }
+            }
+            while (!state.getGameEnded()) {
+                int cell = state.getWinningCell(toMove);
+                if (cell < 0) {
+                    cell = state.getWinningCell(getOpponent(toMove));
+                }
+                int i;
+                if (cell < 0) {
+                    i = random.nextInt(numFree);
+                    cell = freeCells[i];
+                } else {
+                    i = 0;
+                    while (freeCells[i] != cell) {
+                        i++;
+                    }
+                }
+                freeCells[i] = freeCells[--numFree];
+                state.setOccupied(cell, toMove);
+                setCells[numSet++] = cell;
+                toMove = getOpponent(toMove);
+            }
+            Player winner = state.getWinner();
+
+            // Node d of the path was reached by a move of the root player when d is odd
+            for (int d = depth; d >= 0; d--) {
+                int n = path[d];
+                visits[n]++;
+                if (winner == Player.UNSET) {
+                    results[n] += 0.5f;
+                } else if ((winner == rootPlayer) == (d % 2 == 1)) {
+                    results[n] += 1;
+                }
+            }
+            for (int i = 0; i < numSet; i++) {
+                state.unSetOccupied(setCells[i]);
+            }
+            numPlayouts++;
+        }
+
+        // Adds a child for every free cell, returns false if the pool has no room
+        private boolean expand(int node) {
+            int numFree = freeCells.length - state.getNumOccupied();
+            if (numNodes + numFree > maxNodes) {
+                return false;
+            }
+            firstChild[node] = numNodes;
+            for (int cell = 0; cell < freeCells.length; cell++) {
+                if (!state.isOccupied(cell)) {
+                    newNode(cell);
+                }
+            }
+            numChildren[node] = numFree;
+            return true;
+        }
+
+        private int selectChild(int node) {
+            int first = firstChild[node];
+            int end = first + numChildren[node];
+            double logVisits = Math.log(Math.max(1, visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = results[child] / visits[child]
+                        + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        void addRootVisits(int[] visitsByCell) {
+            int end = firstChild[0] + numChildren[0];
+            for (int child = firstChild[0]; child < end; child++) {
+                visitsByCell[moves[child]] += visits[child];
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package game;
+
+/**
+ * The MoveEvent class is published by a GameFeed after every move on one of its boards.
+ * It carries a snapshot of the whole board rather than just the move, so a spectator
+ * that drops or skips events still shows the board correctly from the next one.
+ */
+final class MoveEvent {
+    private static final Player[] PLAYERS = Player.values();
+
+    private final int board;
+    private final int cell;
+    private final byte[] cells;
+    private final Player winner;
+    private final boolean ended;
+
+    private MoveEvent(int aBoard, int aCell, byte[] aCells, Player aWinner, boolean isEnded) {
+        board = aBoard;
+        cell = aCell;
+        cells = aCells;
+        winner = aWinner;
+        ended = isEnded;
+    }
+
+    // Snapshots gameState after cell was played on board, or after a new game with cell -1
+    static MoveEvent of(int board, int cell, GameState gameState) {
+        byte[] cells = new byte[gameState.getGeometry().getNumCells()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) gameState.getOccupiedBy(i).ordinal();
+        }
+        return new MoveEvent(board, cell, cells, gameState.getWinner(), gameState.getGameEnded());
+    }
+
+    int getBoard() {
+        return board;
+    }
+
+    int getCell() {
+        return cell;
+    }
+
+    int getNumCells() {
+        return cells.length;
+    }
+
+    Player getOccupiedBy(int i) {
+        return PLAYERS[cells[i]];
+    }
+
+    // Returns the winner, UNSET for a draw or a game still being played
+    Player getWinner() {
+        return winner;
+    }
+
+    boolean isEnded() {
+        return ended;
+    }
+}
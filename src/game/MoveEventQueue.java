@@ -0,0 +1,58 @@
+package game;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MoveEventQueue class hands MoveEvents from the threads of a GameFeed to a
+ * spectator. It is bounded and never blocks a producer: when it is full, the oldest
+ * event is dropped to make room, so a spectator that falls behind skips to the latest
+ * moves instead of slowing the games down or letting memory grow.
+ */
+class MoveEventQueue {
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final ArrayBlockingQueue<MoveEvent> events;
+    private final LongAdder numOffered = new LongAdder();
+    private final LongAdder numDropped = new LongAdder();
+
+    MoveEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    MoveEventQueue(int aCapacity) {
+        events = new ArrayBlockingQueue<>(aCapacity);
+    }
+
+    // Adds event, dropping the oldest events while the queue is full
+    void offer(MoveEvent event) {
+        numOffered.increment();
+        while (!events.offer(event)) {
+            if (events.poll() != null) {
+                numDropped.increment();
+            }
+        }
+    }
+
+    // Moves up to maxEvents of the oldest events to sink, returns how many were moved
+    int drainTo(Collection<? super MoveEvent> sink, int maxEvents) {
+        return events.drainTo(sink, maxEvents);
+    }
+
+    int getCapacity() {
+        return events.size() + events.remainingCapacity();
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    long getNumOffered() {
+        return numOffered.sum();
+    }
+
+    long getNumDropped() {
+        return numDropped.sum();
+    }
+}
@@ -0,0 +1,96 @@
+package game;
+
+/**
+ * The MoveHistory class records the moves of a game for undo and redo. Each move is
+ * encoded as (cell << 2) | player ordinal in a fixed-capacity ring of shorts, so
+ * recording, undoing and redoing a move neither locks nor allocates.
+ *
+ * The moves that can be undone are followed in the ring by the moves that can be
+ * redone. Once the ring is full, recording a move drops the oldest one.
+ */
+final class MoveHistory {
+    private static final Player[] PLAYERS = Player.values();
+
+    private final short[] moves;
+    private int start;
+    private int numUndo;
+    private int numRedo;
+
+    MoveHistory(int capacity) {
+        moves = new short[capacity];
+    }
+
+    static int getCell(int move) {
+        return move >>> 2;
+    }
+
+    static Player getPlayer(int move) {
+        return PLAYERS[move & 0x3];
+    }
+
+    private int getSlot(int offset) {
+        return (start + offset) % moves.length;
+    }
+
+    void clear() {
+        start = 0;
+        numUndo = 0;
+        numRedo = 0;
+    }
+
+    // Records a move and discards the moves that could be redone
+    void push(int cell, Player player) {
+        numRedo = 0;
+        if (numUndo == moves.length) {
+            start = getSlot(1);
+            numUndo--;
+        }
+        moves[getSlot(numUndo)] = (short) ((cell << 2) | player.ordinal());
+        numUndo++;
+    }
+
+    boolean canUndo() {
+        return numUndo > 0;
+    }
+
+    boolean canRedo() {
+        return numRedo > 0;
+    }
+
+    // Returns the move the next undo() takes back
+    int peekUndo() {
+        return moves[getSlot(numUndo - 1)];
+    }
+
+    // Returns the move the next redo() replays
+    int peekRedo() {
+        return moves[getSlot(numUndo)];
+    }
+
+    int undo() {
+        numUndo--;
+        numRedo++;
+        return moves[getSlot(numUndo)];
+    }
+
+    int redo() {
+        numRedo--;
+        numUndo++;
+        return moves[getSlot(numUndo - 1)];
+    }
+
+    // Returns the i-th recorded move, 0 being the oldest. The moves that can be undone
+    // come first, then the moves that can be redone in the order redo() replays them.
+    int get(int i) {
+        assert(i >= 0 && i < numUndo + numRedo);
+        return moves[getSlot(i)];
+    }
+
+    int getNumUndo() {
+        return numUndo;
+    }
+
+    int getNumRedo() {
+        return numRedo;
+    }
+}
@@ -0,0 +1,41 @@
+package game;
+
+/**
+ * The MoveService class answers move requests for immutable Position snapshots. One
+ * instance can be shared by any number of threads without locking: the strategies only
+ * run on a scratch GameState and AIPlayer owned by the calling thread, and each of those
+ * AIPlayers has its own random number generator for tie-breaks.
+ */
+final class MoveService {
+    private final AIPlayer.Mode mode;
+    private final ThreadLocal<AIPlayer> scratchPlayers;
+
+    MoveService(AIPlayer.Mode aMode) {
+        mode = aMode;
+        // Fail on an unsupported mode now rather than on the first request
+        new AIPlayer(new GameState(), mode);
+        scratchPlayers = ThreadLocal.withInitial(() -> new AIPlayer(new GameState(), mode));
+    }
+
+    AIPlayer.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the move for the player to move in position, or an invalid GridNumber if
+     * the game has ended. lastMove is the opponent's last move, or invalid if unknown.
+     */
+    GridNumber getMove(Position position, GridNumber lastMove) {
+        AIPlayer aiPlayer = scratchPlayers.get();
+        GameState gameState = aiPlayer.getGameState();
+        position.copyTo(gameState);
+        if (gameState.getGameEnded()) {
+            return GridNumber.getInvalidObject();
+        }
+        return aiPlayer.getGameMove(lastMove);
+    }
+
+    GridNumber getMove(Position position) {
+        return getMove(position, GridNumber.getInvalidObject());
+    }
+}
@@ -0,0 +1,13 @@
+package game;
+
+/**
+ * The MoveStrategy interface is implemented by the engines an AIPlayer can delegate
+ * its move choice to. A strategy is bound to the GameState it plays on.
+ */
+interface MoveStrategy {
+    /**
+     * Returns the move for the player to move, or an invalid GridNumber if the game
+     * has ended. lastMove is the opponent's last move, or invalid if there is none.
+     */
+    GridNumber getMove(GridNumber lastMove);
+}
@@ -0,0 +1,173 @@
+package game;
+
+/**
+ * The NegamaxStrategy class searches the game tree with negamax and alpha-beta pruning.
+ * Moves are ordered center first, then corners, then sides, and the search deepens
+ * iteratively, trying the best move of the previous iteration first.
+ *
+ * The search runs on the bit masks of the position, see Bitboard, and keeps count of
+ * the nodes it visits so its cost can be compared with the other strategies.
+ *
+ * The exact scores of positions searched to the end are kept in a TranspositionTable,
+ * across moves, so symmetric variants and positions seen before are not searched again.
+ */
+class NegamaxStrategy implements MoveStrategy {
+    // Center, corners, sides
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+    // A win scores WIN_SCORE plus the number of free cells left, so faster wins score higher
+    private static final int WIN_SCORE = 100;
+    private static final int INFINITY = 1000;
+    private static final int CACHE_CAPACITY = 1 << 12;
+
+    private GameState gameState;
+    private int maxDepth;
+    private final TranspositionTable cache = new TranspositionTable(CACHE_CAPACITY);
+
+    private long numNodes;
+    private long numNanos;
+    private long numSearches;
+
+    NegamaxStrategy(GameState aGameState) {
+        this(aGameState, Bitboard.NUM_CELLS);
+    }
+
+    NegamaxStrategy(GameState aGameState, int aMaxDepth) {
+        gameState = aGameState;
+        maxDepth = aMaxDepth;
+    }
+
+    void setMaxDepth(int aMaxDepth) {
+        maxDepth = aMaxDepth;
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        long start = System.nanoTime();
+        int cell = search(gameState.getPlayerToMove());
+        numNanos += System.nanoTime() - start;
+        numSearches++;
+        if (cell < 0) {
+            return GridNumber.getInvalidObject();
+        }
+        return GridNumber.of(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+    }
+
+    private int search(Player player) {
+        int playerMask = gameState.getMask(player);
+        int opponentMask = gameState.getMask(player == Player.CROSS ? Player.CIRCLE : Player.CROSS);
+        int free = gameState.getMask(Player.UNSET);
+        if (free == 0 || Bitboard.hasLine(playerMask) || Bitboard.hasLine(opponentMask)) {
+            return -1;
+        }
+
+        int bestMove = -1;
+        int numFree = Integer.bitCount(free);
+        for (int depth = 1; depth <= Math.min(maxDepth, numFree); depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = -1;
+            // Search the best move of the previous iteration first
+            if (bestMove >= 0) {
+                alpha = -negamax(opponentMask, playerMask | (1 << bestMove), depth - 1, -INFINITY, INFINITY);
+                iterationBest = bestMove;
+            }
+            for (int cell : MOVE_ORDER) {
+                if ((free & (1 << cell)) == 0 || cell == bestMove) {
+                    continue;
+                }
+                int score = -negamax(opponentMask, playerMask | (1 << cell), depth - 1, -INFINITY, -alpha);
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = cell;
+                }
+            }
+            bestMove = iterationBest;
+            if (alpha >= WIN_SCORE) {
+                // A forced win was found, deeper searches cannot improve on it
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    // Returns the score of the position for the player owning playerMask, who is to move
+    private int negamax(int playerMask, int opponentMask, int depth, int alpha, int beta) {
+        numNodes++;
+        int free = ~(playerMask | opponentMask) & Bitboard.FULL_MASK;
+        if (Bitboard.hasLine(opponentMask)) {
+            return -(WIN_SCORE + Integer.bitCount(free));
+        } else if (free == 0) {
+            return 0;
+        }
+        // The player to move is keyed as CROSS: the score only depends on the two masks
+        int entry = cache.probe(playerMask, opponentMask);
+        if (entry != TranspositionTable.MISS) {
+            return TranspositionTable.getValue(entry);
+        } else if (depth == 0) {
+            return evaluate(playerMask, opponentMask);
+        }
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestCell = TranspositionTable.NO_MOVE;
+        for (int cell : MOVE_ORDER) {
+            if ((free & (1 << cell)) == 0) {
+                continue;
+            }
+            int score = -negamax(opponentMask, playerMask | (1 << cell), depth - 1, -beta, -alpha);
+            if (score > bestScore) {
+                bestScore = score;
+                bestCell = cell;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        // Only a score inside the window of a search to the end is exact
+        if (depth >= Integer.bitCount(free) && bestScore > originalAlpha && bestScore < beta) {
+            cache.store(playerMask, opponentMask, bestCell, bestScore);
+        }
+        return bestScore;
+    }
+
+    // Scores a position that was not searched to the end by the number of lines still
+    // open for each player
+    private static int evaluate(int playerMask, int opponentMask) {
+        int score = 0;
+        for (int lineMask : Bitboard.LINE_MASKS) {
+            if ((lineMask & opponentMask) == 0 && (lineMask & playerMask) != 0) {
+                score++;
+            } else if ((lineMask & playerMask) == 0 && (lineMask & opponentMask) != 0) {
+                score--;
+            }
+        }
+        return score;
+    }
+
+    TranspositionTable getCache() {
+        return cache;
+    }
+
+    long getNumNodes() {
+        return numNodes;
+    }
+
+    long getNumSearches() {
+        return numSearches;
+    }
+
+    double getNodesPerSecond() {
+        return numNanos == 0 ? 0.0 : numNodes * 1e9 / numNanos;
+    }
+
+    void resetStats() {
+        numNodes = 0;
+        numNanos = 0;
+        numSearches = 0;
+    }
+}
@@ -0,0 +1,122 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The PerfectPlayTable class stores the best move and game-theoretic value of every
+ * position reachable from the empty board. Positions are keyed by their base-3 index,
+ * see Bitboard.getIndex(), and each entry is packed into one byte. The number of moves
+ * left until the game ends under perfect play is kept alongside, see Tablebase.
+ *
+ * Every index has an entry, reachable or not, so a lookup is a single array read. The
+ * Tablebase file keeps only the canonical positions, see Symmetry, and trades that
+ * single read for a smaller file.
+ */
+final class PerfectPlayTable {
+    static final int NO_MOVE = 0xF;
+
+    // Values are from the point of view of the player to move
+    static final int LOSS = -1;
+    static final int DRAW = 0;
+    static final int WIN = 1;
+
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+    private static final int REACHABLE = 0x40;
+
+    // Each entry holds the best move in the low 4 bits, the value + 1 in bits 4-5 and
+    // a reachable flag in bit 6. Unreachable positions are 0.
+    private final byte[] entries;
+    private final byte[] distances;
+    private int numPositions;
+
+    private PerfectPlayTable() {
+        entries = new byte[Bitboard.NUM_INDICES];
+        distances = new byte[Bitboard.NUM_INDICES];
+    }
+
+    private static class Holder {
+        private static final PerfectPlayTable INSTANCE = generate();
+    }
+
+    static PerfectPlayTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    static PerfectPlayTable generate() {
+        PerfectPlayTable table = new PerfectPlayTable();
+        // The scores are only needed while solving, the table keeps entries and distances
+        byte[] scores = new byte[Bitboard.NUM_INDICES];
+        Arrays.fill(scores, UNKNOWN);
+        table.solve(scores, 0, 0, 0, Player.CROSS);
+        return table;
+    }
+
+    // Returns the score of the position for the player to move: positive for a win,
+    // negative for a loss and 0 for a draw. Faster wins and slower losses score higher.
+    // scores memoizes the positions solved so far, UNKNOWN for the others.
+    private int solve(byte[] scores, int crossMask, int circleMask, int index, Player toMove) {
+        if (scores[index] != UNKNOWN) {
+            return scores[index];
+        }
+        numPositions++;
+        int opponentMask = (toMove == Player.CROSS) ? circleMask : crossMask;
+        int free = ~(crossMask | circleMask) & Bitboard.FULL_MASK;
+        int bestScore;
+        int bestMove = NO_MOVE;
+        int distance = 0;
+        if (Bitboard.hasLine(opponentMask)) {
+            bestScore = -(1 + Integer.bitCount(free));
+        } else if (free == 0) {
+            bestScore = 0;
+        } else {
+            bestScore = Integer.MIN_VALUE;
+            Player opponent = (toMove == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+            for (int moves = free; moves != 0; moves &= moves - 1) {
+                int cell = Integer.numberOfTrailingZeros(moves);
+                int childIndex = index + Bitboard.getIndexDelta(cell, toMove);
+                int score = (toMove == Player.CROSS)
+                        ? -solve(scores, crossMask | (1 << cell), circleMask, childIndex, opponent)
+                        : -solve(scores, crossMask, circleMask | (1 << cell), childIndex, opponent);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = cell;
+                    distance = distances[childIndex] + 1;
+                }
+            }
+        }
+        distances[index] = (byte) distance;
+        scores[index] = (byte) bestScore;
+        entries[index] = (byte) (REACHABLE | ((Integer.signum(bestScore) + 1) << 4) | bestMove);
+        return bestScore;
+    }
+
+    int getNumPositions() {
+        return numPositions;
+    }
+
+    boolean isReachable(int index) {
+        return entries[index] != 0;
+    }
+
+    // Returns the best cell to play, or NO_MOVE if the position has ended
+    int getMove(int index) {
+        return entries[index] & 0xF;
+    }
+
+    int getValue(int index) {
+        return ((entries[index] >> 4) & 0x3) - 1;
+    }
+
+    // Returns the number of moves until the game ends when both sides play perfectly
+    int getDistance(int index) {
+        return distances[index];
+    }
+
+    int getMove(Position position) {
+        return getMove(position.getIndex());
+    }
+
+    int getValue(Position position) {
+        return getValue(position.getIndex());
+    }
+}
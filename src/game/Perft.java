@@ -0,0 +1,260 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Perft class counts every legal continuation of a position, ply by ply: the
+ * positions reached after each number of moves, and the games that end there in a win
+ * for either player or a draw. It exercises the move generation, setOccupied and
+ * unSetOccupied of GameState, and PerftTest checks the known totals of the standard
+ * board (255,168 games: 131,184 won by X, 77,904 by O and 46,080 drawn) after any
+ * change to the board representation.
+ *
+ * The tree is split into one ForkJoinPool task per position down to splitDepth plies,
+ * and each task below that walks its subtree on its own GameState by making and
+ * unmaking moves.
+ *
+ * Usage: Perft [--size=N] [--win=K] [--moves=CELL,CELL,...] [--depth=N] [--split=N]
+ *              [--threads=N]
+ * where --moves are the cells played from the empty board to reach the root position
+ * and --depth limits the number of plies searched.
+ */
+final class Perft {
+    static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * The Result class holds the counts of a perft run, indexed by ply from the root.
+     */
+    static final class Result {
+        private final long[] numNodes;
+        private final long[] numCrossWins;
+        private final long[] numCircleWins;
+        private final long[] numDraws;
+        private long elapsedNanos;
+
+        Result(int maxDepth) {
+            numNodes = new long[maxDepth + 1];
+            numCrossWins = new long[maxDepth + 1];
+            numCircleWins = new long[maxDepth + 1];
+            numDraws = new long[maxDepth + 1];
+        }
+
+        void add(Result other) {
+            for (int ply = 0; ply < numNodes.length; ply++) {
+                numNodes[ply] += other.numNodes[ply];
+                numCrossWins[ply] += other.numCrossWins[ply];
+                numCircleWins[ply] += other.numCircleWins[ply];
+                numDraws[ply] += other.numDraws[ply];
+            }
+        }
+
+        int getMaxDepth() {
+            return numNodes.length - 1;
+        }
+
+        long getNumNodes(int ply) {
+            return numNodes[ply];
+        }
+
+        long getNumWins(Player player, int ply) {
+            return player == Player.CROSS ? numCrossWins[ply] : numCircleWins[ply];
+        }
+
+        long getNumDraws(int ply) {
+            return numDraws[ply];
+        }
+
+        long getNumNodes() {
+            return sum(numNodes);
+        }
+
+        long getNumWins(Player player) {
+            return sum(player == Player.CROSS ? numCrossWins : numCircleWins);
+        }
+
+        long getNumDraws() {
+            return sum(numDraws);
+        }
+
+        // Returns the number of finished games
+        long getNumGames() {
+            return getNumWins(Player.CROSS) + getNumWins(Player.CIRCLE) + getNumDraws();
+        }
+
+        double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : getNumNodes() * 1e9 / elapsedNanos;
+        }
+
+        private static long sum(long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    Perft() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    Perft(ForkJoinPool aPool, int aSplitDepth) {
+        if (aSplitDepth < 0) {
+            throw new IllegalArgumentException("Split depth must not be negative: " + aSplitDepth);
+        }
+        pool = aPool;
+        splitDepth = aSplitDepth;
+    }
+
+    // Counts the continuations of root up to maxDepth plies; root is not changed
+    Result run(GameState root, int maxDepth) {
+        long start = System.nanoTime();
+        GameState gameState = new GameState(root.getSize(), root.getWinLength());
+        gameState.copyFrom(root);
+        Result result = pool.invoke(new Subtree(gameState, 0, maxDepth));
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // Counts the position of gameState at ply and everything below it, up to maxDepth
+    private static void walk(GameState gameState, Player toMove, int ply, int maxDepth, Result result) {
+        result.numNodes[ply]++;
+        if (count(gameState, ply, result) || ply == maxDepth) {
+            return;
+        }
+        Player next = toMove == Player.CROSS ? Player.CIRCLE : Player.CROSS;
+        int numCells = gameState.getGeometry().getNumCells();
+        for (int cell = 0; cell < numCells; cell++) {
+            if (!gameState.isOccupied(cell)) {
+                gameState.setOccupied(cell, toMove);
+                walk(gameState, next, ply + 1, maxDepth, result);
+                gameState.unSetOccupied(cell);
+            }
+        }
+    }
+
+    // Counts the game if it has ended at ply and returns whether it has
+    private static boolean count(GameState gameState, int ply, Result result) {
+        if (gameState.isWon(Player.CROSS)) {
+            result.numCrossWins[ply]++;
+        } else if (gameState.isWon(Player.CIRCLE)) {
+            result.numCircleWins[ply]++;
+        } else if (gameState.getIsFull()) {
+            result.numDraws[ply]++;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The Subtree class counts the subtree of a position, forking one task per move
+     * while it is above the split depth.
+     */
+    private class Subtree extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final GameState gameState;
+        private final int ply;
+        private final int maxDepth;
+
+        Subtree(GameState aGameState, int aPly, int aMaxDepth) {
+            gameState = aGameState;
+            ply = aPly;
+            maxDepth = aMaxDepth;
+        }
+
+        @Override
+        protected Result compute() {
+            Result result = new Result(maxDepth);
+            Player toMove = gameState.getPlayerToMove();
+            if (ply >= splitDepth) {
+                walk(gameState, toMove, ply, maxDepth, result);
+                return result;
+            }
+            result.numNodes[ply]++;
+            if (count(gameState, ply, result) || ply == maxDepth) {
+                return result;
+            }
+            List<Subtree> children = new ArrayList<>();
+            int numCells = gameState.getGeometry().getNumCells();
+            for (int cell = 0; cell < numCells; cell++) {
+                if (!gameState.isOccupied(cell)) {
+                    GameState child = new GameState(gameState.getSize(), gameState.getWinLength());
+                    child.copyFrom(gameState);
+                    child.setOccupied(cell, toMove);
+                    children.add(new Subtree(child, ply + 1, maxDepth));
+                }
+            }
+            for (Subtree child : invokeAll(children)) {
+                result.add(child.join());
+            }
+            return result;
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return named;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> named = parseArgs(args);
+        int size = Integer.parseInt(named.getOrDefault("size", "3"));
+        int winLength = Integer.parseInt(named.getOrDefault("win", String.valueOf(size)));
+        int splitDepth = Integer.parseInt(named.getOrDefault("split", String.valueOf(DEFAULT_SPLIT_DEPTH)));
+        int numThreads = Integer.parseInt(named.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        GameState root = new GameState(size, winLength);
+        String moves = named.getOrDefault("moves", "");
+        for (String move : moves.isEmpty() ? new String[0] : moves.split(",")) {
+            int cell = Integer.parseInt(move);
+            if (cell < 0 || cell >= root.getGeometry().getNumCells()) {
+                throw new IllegalArgumentException("Cell " + cell + " in --moves is off the board");
+            } else if (root.isOccupied(cell)) {
+                throw new IllegalArgumentException("Cell " + cell + " in --moves is already occupied");
+            } else if (root.getGameEnded()) {
+                throw new IllegalArgumentException("Cell " + cell + " in --moves is played after the game ended");
+            }
+            root.setMove(cell);
+        }
+        int freeCells = root.getGeometry().getNumCells() - root.getNumOccupied();
+        int maxDepth = Integer.parseInt(named.getOrDefault("depth", String.valueOf(freeCells)));
+
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        Perft perft = new Perft(pool, splitDepth);
+        // Warm up for about a second, then measure
+        long warmupEnd = System.nanoTime() + 1_000_000_000L;
+        for (int i = 0; i < 10 && System.nanoTime() < warmupEnd; i++) {
+            perft.run(root, maxDepth);
+        }
+        Result result = perft.run(root, maxDepth);
+        pool.shutdown();
+
+        System.out.printf("perft of %dx%d (%d in a row) from [%s] to depth %d, split at %d on %d threads%n",
+                size, size, winLength, moves, maxDepth, splitDepth, numThreads);
+        System.out.printf("%5s %14s %14s %14s %14s%n", "ply", "nodes", "X wins", "O wins", "draws");
+        for (int ply = 0; ply <= maxDepth; ply++) {
+            System.out.printf("%5d %14d %14d %14d %14d%n", ply, result.getNumNodes(ply),
+                    result.getNumWins(Player.CROSS, ply), result.getNumWins(Player.CIRCLE, ply),
+                    result.getNumDraws(ply));
+        }
+        System.out.printf("%5s %14d %14d %14d %14d%n", "all", result.getNumNodes(),
+                result.getNumWins(Player.CROSS), result.getNumWins(Player.CIRCLE), result.getNumDraws());
+        System.out.printf("%d games, %.3g nodes/s%n", result.getNumGames(), result.getNodesPerSecond());
+    }
+}
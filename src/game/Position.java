@@ -0,0 +1,166 @@
+package game;
+
+/**
+ * The Position class is an immutable snapshot of a standard 3x3 board, see Bitboard.
+ * Unlike GameState it can be handed to other threads freely, and it can be used as a
+ * map key.
+ *
+ * The whole position is packed into one int: the CROSS mask in bits 0-8, the CIRCLE
+ * mask in bits 9-17 and the player to move in bit 18 (set for CIRCLE). toInt() and
+ * fromInt() convert to and from that form for storage in primitive arrays.
+ */
+final class Position {
+    static final Position EMPTY = new Position(0);
+
+    private static final int CIRCLE_SHIFT = Bitboard.NUM_CELLS;
+    private static final int CIRCLE_TO_MOVE = 1 << (2 * Bitboard.NUM_CELLS);
+    private static final int PACKED_MASK = (CIRCLE_TO_MOVE << 1) - 1;
+
+    private final int packed;
+
+    private Position(int aPacked) {
+        packed = aPacked;
+    }
+
+    // The player to move is implied by the number of pieces, CROSS always moves first
+    Position(int crossMask, int circleMask) {
+        this(pack(crossMask, circleMask, Integer.bitCount(crossMask) == Integer.bitCount(circleMask)
+                ? Player.CROSS : Player.CIRCLE));
+    }
+
+    private static int pack(int crossMask, int circleMask, Player toMove) {
+        if ((crossMask & circleMask) != 0 || ((crossMask | circleMask) & ~Bitboard.FULL_MASK) != 0) {
+            throw new IllegalArgumentException("Invalid position masks " + crossMask + ", " + circleMask);
+        }
+        return crossMask | (circleMask << CIRCLE_SHIFT) | (toMove == Player.CIRCLE ? CIRCLE_TO_MOVE : 0);
+    }
+
+    static Position of(GameState gameState) {
+        if (!gameState.isStandard()) {
+            throw new IllegalArgumentException("Only the standard 3x3 board has a Position");
+        }
+        return new Position(pack(gameState.getMask(Player.CROSS), gameState.getMask(Player.CIRCLE),
+                gameState.getPlayerToMove()));
+    }
+
+    static Position fromInt(int aPacked) {
+        if ((aPacked & ~PACKED_MASK) != 0) {
+            throw new IllegalArgumentException("Invalid packed position " + aPacked);
+        }
+        return new Position(pack(aPacked & Bitboard.FULL_MASK, (aPacked >>> CIRCLE_SHIFT) & Bitboard.FULL_MASK,
+                (aPacked & CIRCLE_TO_MOVE) != 0 ? Player.CIRCLE : Player.CROSS));
+    }
+
+    int toInt() {
+        return packed;
+    }
+
+    // The mask of UNSET is the set of free locations
+    int getMask(Player player) {
+        int crossMask = packed & Bitboard.FULL_MASK;
+        int circleMask = (packed >>> CIRCLE_SHIFT) & Bitboard.FULL_MASK;
+        if (player == Player.CROSS) {
+            return crossMask;
+        } else if (player == Player.CIRCLE) {
+            return circleMask;
+        }
+        return ~(crossMask | circleMask) & Bitboard.FULL_MASK;
+    }
+
+    Player getOccupiedBy(int cell) {
+        if ((packed & (1 << cell)) != 0) {
+            return Player.CROSS;
+        } else if ((packed & (1 << (cell + CIRCLE_SHIFT))) != 0) {
+            return Player.CIRCLE;
+        }
+        return Player.UNSET;
+    }
+
+    Player getPlayerToMove() {
+        return (packed & CIRCLE_TO_MOVE) != 0 ? Player.CIRCLE : Player.CROSS;
+    }
+
+    // The base-3 index of the board, see Bitboard
+    int getIndex() {
+        return Bitboard.getIndex(getMask(Player.CROSS), getMask(Player.CIRCLE));
+    }
+
+    // The base-3 index of a packed position, without creating a Position
+    static int getIndex(int aPacked) {
+        int crossMask = aPacked & Bitboard.FULL_MASK;
+        int circleMask = (aPacked >>> CIRCLE_SHIFT) & Bitboard.FULL_MASK;
+        if ((aPacked & ~PACKED_MASK) != 0 || (crossMask & circleMask) != 0) {
+            throw new IllegalArgumentException("Invalid packed position " + aPacked);
+        }
+        return Bitboard.getIndex(crossMask, circleMask);
+    }
+
+    Player getWinner() {
+        if (Bitboard.hasLine(getMask(Player.CIRCLE))) {
+            return Player.CIRCLE;
+        } else if (Bitboard.hasLine(getMask(Player.CROSS))) {
+            return Player.CROSS;
+        }
+        return Player.UNSET;
+    }
+
+    boolean isEnded() {
+        return getWinner() != Player.UNSET || getMask(Player.UNSET) == 0;
+    }
+
+    // Returns the position after the player to move occupies cell
+    Position apply(int cell) {
+        if (getOccupiedBy(cell) != Player.UNSET) {
+            throw new IllegalArgumentException("Location " + cell + " is already occupied");
+        }
+        if (getPlayerToMove() == Player.CROSS) {
+            return new Position((packed | (1 << cell)) | CIRCLE_TO_MOVE);
+        }
+        return new Position((packed | (1 << (cell + CIRCLE_SHIFT))) & ~CIRCLE_TO_MOVE);
+    }
+
+    Position apply(GridNumber move) {
+        return apply(Bitboard.getCell(move));
+    }
+
+    // Loads the position into gameState, replacing its board and history
+    void copyTo(GameState gameState) {
+        gameState.initGame();
+        for (int cell = 0; cell < Bitboard.NUM_CELLS; cell++) {
+            Player player = getOccupiedBy(cell);
+            if (player != Player.UNSET) {
+                gameState.setOccupied(cell, player);
+            }
+        }
+        gameState.setCurrentPlayer(getPlayerToMove());
+    }
+
+    GameState toGameState() {
+        GameState gameState = new GameState();
+        copyTo(gameState);
+        return gameState;
+    }
+
+    @Override
+    public boolean equals(Object another) {
+        if (!(another instanceof Position)) {
+            return false;
+        }
+        return packed == ((Position) another).packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return packed * 0x9E3779B9;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder board = new StringBuilder(Bitboard.NUM_CELLS);
+        for (int cell = 0; cell < Bitboard.NUM_CELLS; cell++) {
+            Player player = getOccupiedBy(cell);
+            board.append(player == Player.CROSS ? 'X' : player == Player.CIRCLE ? 'O' : '.');
+        }
+        return board.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package game;
+
+import java.util.Random;
+
+/**
+ * The RandomStrategy class plays a uniformly random free location on boards of any
+ * size. It is used as a weak opponent when testing the other strategies.
+ */
+class RandomStrategy implements MoveStrategy {
+    private GameState gameState;
+    private final Random random;
+
+    RandomStrategy(GameState aGameState, Random aRandom) {
+        gameState = aGameState;
+        random = aRandom;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        BoardGeometry geometry = gameState.getGeometry();
+        int numFree = geometry.getNumCells() - gameState.getNumOccupied();
+        if (numFree == 0 || gameState.getHasWinner()) {
+            return GridNumber.getInvalidObject();
+        }
+        int idx = random.nextInt(numFree);
+        for (int cell = 0; cell < geometry.getNumCells(); cell++) {
+            if (!gameState.isOccupied(cell) && idx-- == 0) {
+                return geometry.getLocation(cell);
+            }
+        }
+        return GridNumber.getInvalidObject();
+    }
+}
@@ -0,0 +1,201 @@
+package game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The RetrogradeSolver class labels every position of the standard board reachable
+ * from the empty board as a win, draw or loss for the player to move, together with
+ * its depth: the number of moves until the game ends when the winner wins as fast and
+ * the loser loses as slowly as possible.
+ *
+ * The reachable positions are first collected layer by layer, by their number of
+ * pieces. The layers are then labeled backwards from the full boards to the empty
+ * board: ended positions are labeled directly and every other position from the
+ * labels of its children in the next layer. The positions of a layer do not depend on
+ * each other, so each layer is labeled in parallel chunks on a ForkJoinPool.
+ */
+final class RetrogradeSolver {
+    static final int DEFAULT_CHUNK_SIZE = 64;
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    // Positions are in the packed form of Position.toInt(), grouped by piece count
+    private final int[][] layers = new int[Bitboard.NUM_CELLS + 1][];
+    // Indexed by Bitboard.getIndex(), UNKNOWN for unreachable positions
+    private final byte[] values = new byte[Bitboard.NUM_INDICES];
+    private final byte[] depths = new byte[Bitboard.NUM_INDICES];
+    // The packed position a reachable position was first reached from, -1 for the empty board
+    private final int[] parents = new int[Bitboard.NUM_INDICES];
+    private final int chunkSize;
+    private int numPositions;
+
+    private RetrogradeSolver(int aChunkSize) {
+        chunkSize = aChunkSize;
+        Arrays.fill(values, UNKNOWN);
+    }
+
+    static RetrogradeSolver solve() {
+        return solve(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    static RetrogradeSolver solve(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        RetrogradeSolver solver = new RetrogradeSolver(chunkSize);
+        solver.collectLayers();
+        for (int pieces = Bitboard.NUM_CELLS; pieces >= 0; pieces--) {
+            int[] layer = solver.layers[pieces];
+            pool.invoke(solver.new Chunk(layer, 0, layer.length));
+        }
+        return solver;
+    }
+
+    private void collectLayers() {
+        boolean[] seen = new boolean[Bitboard.NUM_INDICES];
+        int[] next = new int[Bitboard.NUM_INDICES];
+        layers[0] = new int[] {Position.EMPTY.toInt()};
+        seen[Position.EMPTY.getIndex()] = true;
+        parents[Position.EMPTY.getIndex()] = -1;
+        numPositions = 1;
+        for (int pieces = 0; pieces < Bitboard.NUM_CELLS; pieces++) {
+            int numNext = 0;
+            for (int packed : layers[pieces]) {
+                Position position = Position.fromInt(packed);
+                if (position.isEnded()) {
+                    continue;
+                }
+                for (int free = position.getMask(Player.UNSET); free != 0; free &= free - 1) {
+                    Position child = position.apply(Integer.numberOfTrailingZeros(free));
+                    int index = child.getIndex();
+                    if (!seen[index]) {
+                        seen[index] = true;
+                        parents[index] = packed;
+                        next[numNext++] = child.toInt();
+                    }
+                }
+            }
+            layers[pieces + 1] = Arrays.copyOf(next, numNext);
+            numPositions += numNext;
+        }
+    }
+
+    // Labels a position whose children are labeled already
+    private void label(int packed) {
+        Position position = Position.fromInt(packed);
+        int index = position.getIndex();
+        if (position.getWinner() != Player.UNSET) {
+            // The player who just moved has won
+            values[index] = PerfectPlayTable.LOSS;
+            depths[index] = 0;
+            return;
+        }
+        int free = position.getMask(Player.UNSET);
+        if (free == 0) {
+            values[index] = PerfectPlayTable.DRAW;
+            depths[index] = 0;
+            return;
+        }
+        int bestValue = PerfectPlayTable.LOSS - 1;
+        int bestDepth = 0;
+        for (; free != 0; free &= free - 1) {
+            int childIndex = position.apply(Integer.numberOfTrailingZeros(free)).getIndex();
+            int value = -values[childIndex];
+            int depth = depths[childIndex] + 1;
+            // Prefer the higher value, then a faster win or a slower draw or loss
+            if (value > bestValue || (value == bestValue
+                    && (value == PerfectPlayTable.WIN ? depth < bestDepth : depth > bestDepth))) {
+                bestValue = value;
+                bestDepth = depth;
+            }
+        }
+        values[index] = (byte) bestValue;
+        depths[index] = (byte) bestDepth;
+    }
+
+    int getNumPositions() {
+        return numPositions;
+    }
+
+    // Returns the reachable positions with the given number of pieces, in packed form
+    int[] getLayer(int pieces) {
+        return layers[pieces].clone();
+    }
+
+    boolean isReachable(int index) {
+        return values[index] != UNKNOWN;
+    }
+
+    // Returns PerfectPlayTable.LOSS, DRAW or WIN for the player to move
+    int getValue(int index) {
+        return values[index];
+    }
+
+    int getDepth(int index) {
+        return depths[index];
+    }
+
+    int getValue(Position position) {
+        return getValue(position.getIndex());
+    }
+
+    int getDepth(Position position) {
+        return getDepth(position.getIndex());
+    }
+
+    // Returns the position a reachable position was first reached from, or null for
+    // the empty board
+    Position getParent(Position position) {
+        int parent = parents[position.getIndex()];
+        return parent < 0 ? null : Position.fromInt(parent);
+    }
+
+    // Returns a move that keeps the value of a position and reaches its depth, or -1
+    // if the game has ended
+    int getBestMove(Position position) {
+        if (position.isEnded()) {
+            return -1;
+        }
+        int value = getValue(position);
+        int depth = getDepth(position);
+        for (int free = position.getMask(Player.UNSET); free != 0; free &= free - 1) {
+            int cell = Integer.numberOfTrailingZeros(free);
+            Position child = position.apply(cell);
+            if (-getValue(child) == value && getDepth(child) + 1 == depth) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("No move reaches the label of " + position);
+    }
+
+    /**
+     * The Chunk class labels a range of a layer, splitting it in halves until it is no
+     * longer than the chunk size.
+     */
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] layer;
+        private final int start;
+        private final int end;
+
+        Chunk(int[] aLayer, int aStart, int anEnd) {
+            layer = aLayer;
+            start = aStart;
+            end = anEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                for (int i = start; i < end; i++) {
+                    label(layer[i]);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new Chunk(layer, start, middle), new Chunk(layer, middle, end));
+        }
+    }
+}
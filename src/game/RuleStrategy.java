@@ -0,0 +1,274 @@
+package game;
+
+import java.util.Random;
+
+/**
+ * The RuleStrategy class implements the Tic-Tac-Toe strategy from
+ * https://en.wikipedia.org/wiki/Tic-tac-toe#Strategy as a cascade of rules
+ * (win, block, fork, block fork, center, opposite corner, empty corner, empty side).
+ * It plays for whichever player is to move.
+ *
+ * When AIMetrics is enabled, the rule that picked each move is counted.
+ */
+class RuleStrategy implements MoveStrategy {
+    /**
+     * The Rule enum names the steps of the cascade, in the order they are tried.
+     */
+    enum Rule {
+        WIN, BLOCK, FORK, BLOCK_FORK, CENTER, OPPOSITE_CORNER, EMPTY_CORNER, EMPTY_SIDE
+    }
+
+    private GameState gameState;
+    private final Random random;
+    // The player the strategy moves for and its opponent, set on every move
+    private Player ai;
+    private Player human;
+    private static final GridNumber[] OPPOSITE_CORNERS;
+    private static final GridNumber[] CORNERS;
+    private static final GridNumber[] SIDES;
+
+    static {
+        // Initialize all possible locations
+        GridNumber loc00 = GridNumber.of(0, 0);
+        GridNumber loc01 = GridNumber.of(0, 1);
+        GridNumber loc02 = GridNumber.of(0, 2);
+        GridNumber loc10 = GridNumber.of(1, 0);
+        GridNumber loc11 = GridNumber.of(1, 1);
+        GridNumber loc12 = GridNumber.of(1, 2);
+        GridNumber loc20 = GridNumber.of(2, 0);
+        GridNumber loc21 = GridNumber.of(2, 1);
+        GridNumber loc22 = GridNumber.of(2, 2);
+
+        CORNERS = new GridNumber[] {loc00, loc02, loc20, loc22};
+
+        // Initialize a lookup table of opposite corners, indexed by cell; the opposite
+        // corner is the point reflection through the center, derived rather than listed
+        OPPOSITE_CORNERS = new GridNumber[Bitboard.NUM_CELLS];
+        for (GridNumber corner : CORNERS) {
+            OPPOSITE_CORNERS[Bitboard.getCell(corner)] = GridNumber.of(Bitboard.SIZE - 1 - corner.getRow(),
+                    Bitboard.SIZE - 1 - corner.getColumn());
+        }
+        SIDES = new GridNumber[] {loc01, loc12, loc21, loc10};
+    }
+
+    RuleStrategy(GameState aGameState) {
+        gameState = aGameState;
+        random = new Random();
+    }
+
+    private static GridNumber getLocation(int cell) {
+        return GridNumber.of(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+    }
+
+    private boolean isFree(int r, int c) {
+        return !gameState.isOccupied(GridNumber.of(r, c));
+    }
+
+    private boolean isFree(GridNumber move){
+        return !gameState.isOccupied(move);
+    }
+
+    private Player getOpponent(Player player) {
+        if (player == Player.CIRCLE) {
+            return Player.CROSS;
+        } else {
+            assert(player == Player.CROSS);
+            return Player.CIRCLE;
+        }
+    }
+
+    // The number of lines on which the move gives player two pieces and the opponent
+    // has none, kept up to date by GameState
+    private int getMoveThreatAdd(Player player, GridNumber move) {
+        assert(isFree(move));
+        return gameState.getNumThreatsCreatedBy(player, Bitboard.getCell(move));
+    }
+
+    private boolean isMoveForking(Player player, int cell) {
+        return gameState.getNumThreatsCreatedBy(player, cell) >= 2;
+    }
+
+    // Available and forking moves are returned as masks of cells, see Bitboard
+    private int getAvailableMoves(){
+        return gameState.getMask(Player.UNSET);
+    }
+
+    private int getForkingMoves(Player player) {
+        int forkingMoves = 0;
+        for (int moves = getAvailableMoves(); moves != 0; moves &= moves - 1) {
+            int cell = Integer.numberOfTrailingZeros(moves);
+            if (isMoveForking(player, cell)) {
+                forkingMoves |= 1 << cell;
+            }
+        }
+        return forkingMoves;
+    }
+
+    private GridNumber getFirstMove(int moves) {
+        if (moves == 0) {
+            return GridNumber.getInvalidObject();
+        }
+        return getLocation(Integer.numberOfTrailingZeros(moves));
+    }
+
+    private GridNumber getForkingMove() {
+        return getFirstMove(getForkingMoves(ai));
+    }
+
+    private GridNumber handleTwoForks(int availableMoves, int forkingMoves){
+        // If human has multiple forking moves available, force the human to block
+        // in a way that he cannot complete the fork
+        GridNumber move = GridNumber.getInvalidObject();
+        if (Integer.bitCount(forkingMoves) < 2) {
+            return move;
+        }
+
+        int numTrials = 0;
+        for (int moves = availableMoves; moves != 0; moves &= moves - 1) {
+            GridNumber availableMove = getLocation(Integer.numberOfTrailingZeros(moves));
+            numTrials++;
+            gameState.setOccupied(availableMove, ai);
+            GridNumber winMove = getWinMove(ai);
+            int opponentForkingMoves = getForkingMoves(human);
+            if (winMove.isValid() && (opponentForkingMoves & (1 << Bitboard.getCell(winMove))) == 0) {
+                move = availableMove;
+                gameState.unSetOccupied(availableMove);
+                break;
+            }
+            gameState.unSetOccupied(availableMove);
+        }
+        if (AIMetrics.isEnabled()) {
+            AIMetrics.recordTwoForkTrials(numTrials);
+        }
+        return move;
+    }
+
+    private GridNumber getForkBlockingMove() {
+        GridNumber move;
+        int availableMoves = getAvailableMoves();
+        int forkingMoves = getForkingMoves(human);
+        move = handleTwoForks(availableMoves, forkingMoves);
+        if (move.isValid()) {
+            return move;
+        }
+        move = getFirstMove(forkingMoves);
+        for (int moves = forkingMoves; moves != 0; moves &= moves - 1) {
+            GridNumber forkingMove = getLocation(Integer.numberOfTrailingZeros(moves));
+            if (getMoveThreatAdd(ai, forkingMove) >= 1) {
+                move = forkingMove;
+                break;
+            }
+        }
+        return move;
+    }
+
+    private GridNumber getWinMove(Player player) {
+        int cell = gameState.getWinningCell(player);
+        return cell < 0 ? GridNumber.getInvalidObject() : getLocation(cell);
+    }
+
+    /* A random move generator for prototyping purposes
+    private GridNumber getRandomMove() {
+        GridNumber aiMove = GridNumber.getInvalidObject();
+        Random rand = new Random();
+        while (!aiMove.isValid() || gameState.isOccupied(aiMove)) {
+            int row = rand.nextInt(3);
+            int col = rand.nextInt(3);
+            aiMove = GridNumber.of(row, col);
+        }
+        return aiMove;
+    }
+    */
+
+    private GridNumber getCenterMove() {
+        return isFree(1, 1) ? GridNumber.of(1, 1) : GridNumber.getInvalidObject();
+    }
+
+    private GridNumber getOppositeCornerMove(GridNumber humanMove) {
+        GridNumber aiMove = GridNumber.getInvalidObject();
+        if (!humanMove.isValid()) {
+            return aiMove;
+        }
+        GridNumber oppositeCorner = OPPOSITE_CORNERS[Bitboard.getCell(humanMove)];
+        if (oppositeCorner != null && isFree(oppositeCorner)) {
+            aiMove = oppositeCorner;
+        }
+        return aiMove;
+    }
+
+    private GridNumber getFromListImpl(GridNumber[] moveList) {
+        int numAvailable = 0;
+        for (GridNumber move : moveList) {
+            if (isFree(move)) {
+                numAvailable++;
+            }
+        }
+        if (numAvailable == 0) {
+            return GridNumber.getInvalidObject();
+        }
+        int idx = numAvailable == 1 ? 0 : random.nextInt(numAvailable);
+        for (GridNumber move : moveList) {
+            if (isFree(move) && idx-- == 0) {
+                return move;
+            }
+        }
+        return GridNumber.getInvalidObject();
+    }
+
+    private GridNumber getEmptySideMove() {
+        return getFromListImpl(SIDES);
+    }
+
+    private GridNumber getEmptyCornerMove(){
+        return getFromListImpl(CORNERS);
+    }
+
+    // Returns move, counting it as picked by rule if metrics are enabled
+    private GridNumber pick(Rule rule, GridNumber move, long startNanos) {
+        if (startNanos != 0) {
+            AIMetrics.recordRule(rule, startNanos);
+        }
+        return move;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber humanMove) {
+        long startNanos = AIMetrics.isEnabled() ? System.nanoTime() : 0;
+        ai = gameState.getPlayerToMove();
+        human = getOpponent(ai);
+        GridNumber aiMove = getWinMove(ai); // 1. Win
+        if (aiMove.isValid()) {
+            return pick(Rule.WIN, aiMove, startNanos);
+        }
+        aiMove = getWinMove(human); // 2. Block
+        if (aiMove.isValid()) {
+            return pick(Rule.BLOCK, aiMove, startNanos);
+        }
+        aiMove = getForkingMove(); // 3. Fork
+        if (aiMove.isValid()) {
+            return pick(Rule.FORK, aiMove, startNanos);
+        }
+        aiMove = getForkBlockingMove(); // 4. Block a fork
+        if (aiMove.isValid()) {
+            return pick(Rule.BLOCK_FORK, aiMove, startNanos);
+        }
+        aiMove = getCenterMove(); // 5. Center
+        if (aiMove.isValid()) {
+            return pick(Rule.CENTER, aiMove, startNanos);
+        }
+        aiMove = getOppositeCornerMove(humanMove); // 6. Opposite corner
+        if (aiMove.isValid()) {
+            return pick(Rule.OPPOSITE_CORNER, aiMove, startNanos);
+        }
+        aiMove = getEmptyCornerMove(); // 7. Empty corner
+        if (aiMove.isValid()) {
+            return pick(Rule.EMPTY_CORNER, aiMove, startNanos);
+        }
+        aiMove = getEmptySideMove(); // 8. Empty side
+        if (aiMove.isValid()) {
+            return pick(Rule.EMPTY_SIDE, aiMove, startNanos);
+        }
+        assert false : "Detect unhandled situation.";
+        return aiMove;
+    }
+}
@@ -0,0 +1,270 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The RuleVerifier class checks that an AIPlayer.Mode never gives away game-theoretic
+ * value on the standard board. It solves the game with the RetrogradeSolver, asks the
+ * mode for its move in every reachable position where the AI is to move, through a
+ * BatchEvaluator, and compares the label of the position with the label after the
+ * move. The solver is also checked against the PerfectPlayTable.
+ *
+ * A position is in play if it arises in a game where the AI made all of its own
+ * moves, whatever the opponent played. Other positions need the AI to have played a
+ * different move earlier, as after an undo in Main or in a game loaded from elsewhere.
+ *
+ * The report is printed as one JSON object. Each deviation lists the board before the
+ * move, the move, the values before and after it for the AI, whether it is in play,
+ * and a line of cells from the empty board through the move to the end of a game in
+ * which the opponent then plays perfectly. The exit status is 1 if the AI turns a draw
+ * or win into a loss or plays an illegal move in play, or if the solver and the table
+ * disagree, so the verifier can run as a regression gate; RuleVerifierTest runs it that
+ * way for the perfect-play modes and the rule cascade.
+ *
+ * Usage: RuleVerifier [--mode=MODE] [--ai=CROSS|CIRCLE]
+ * where MODE is one of the AIPlayer.Mode names, RULES by default, and --ai is the side
+ * the AI plays, CIRCLE by default.
+ */
+final class RuleVerifier {
+    private static final String[] VALUE_NAMES = {"LOSS", "DRAW", "WIN"};
+
+    private final AIPlayer.Mode mode;
+    private final Player aiPlayer;
+    private final RetrogradeSolver solver;
+    private final List<Deviation> deviations = new ArrayList<>();
+    // The positions in play, and the packed position each was first reached from in
+    // play, -1 for the empty board
+    private final boolean[] inPlay = new boolean[Bitboard.NUM_INDICES];
+    private final int[] playParents = new int[Bitboard.NUM_INDICES];
+    private int numChecked;
+    private int numTableMismatches;
+
+    /**
+     * The Deviation class is one move of the AI that lost value.
+     */
+    static final class Deviation {
+        private final Position position;
+        private final int move;
+        private final int valueBefore;
+        private final int valueAfter;
+        private final boolean inPlay;
+
+        Deviation(Position aPosition, int aMove, int aValueBefore, int aValueAfter, boolean isInPlay) {
+            position = aPosition;
+            move = aMove;
+            valueBefore = aValueBefore;
+            valueAfter = aValueAfter;
+            inPlay = isInPlay;
+        }
+
+        Position getPosition() {
+            return position;
+        }
+
+        // Returns the cell played, or PerfectPlayTable.NO_MOVE for an illegal move
+        int getMove() {
+            return move;
+        }
+
+        int getValueBefore() {
+            return valueBefore;
+        }
+
+        int getValueAfter() {
+            return valueAfter;
+        }
+
+        boolean isLosing() {
+            return valueAfter == PerfectPlayTable.LOSS;
+        }
+
+        boolean isInPlay() {
+            return inPlay;
+        }
+    }
+
+    RuleVerifier(AIPlayer.Mode aMode, Player anAIPlayer, RetrogradeSolver aSolver) {
+        if (anAIPlayer == Player.UNSET) {
+            throw new IllegalArgumentException("The AI plays CROSS or CIRCLE");
+        }
+        mode = aMode;
+        aiPlayer = anAIPlayer;
+        solver = aSolver;
+    }
+
+    List<Deviation> getDeviations() {
+        return deviations;
+    }
+
+    int getNumChecked() {
+        return numChecked;
+    }
+
+    int getNumTableMismatches() {
+        return numTableMismatches;
+    }
+
+    // Returns the number of deviations that lose, only counting those in play if inPlay is set
+    int getNumLosing(boolean inPlay) {
+        int numLosing = 0;
+        for (Deviation deviation : deviations) {
+            if (deviation.isLosing() && (deviation.isInPlay() || !inPlay)) {
+                numLosing++;
+            }
+        }
+        return numLosing;
+    }
+
+    void verify() {
+        PerfectPlayTable table = PerfectPlayTable.getInstance();
+        int numToCheck = 0;
+        int[] positions = new int[solver.getNumPositions()];
+        for (int pieces = 0; pieces <= Bitboard.NUM_CELLS; pieces++) {
+            for (int packed : solver.getLayer(pieces)) {
+                int index = Position.getIndex(packed);
+                if (table.getValue(index) != solver.getValue(index)
+                        || table.getDistance(index) != solver.getDepth(index)) {
+                    numTableMismatches++;
+                }
+                Position position = Position.fromInt(packed);
+                if (position.getPlayerToMove() == aiPlayer && !position.isEnded()) {
+                    positions[numToCheck++] = packed;
+                }
+            }
+        }
+
+        int[] batch = Arrays.copyOf(positions, numToCheck);
+        byte[] moves = new byte[numToCheck];
+        byte[] values = new byte[numToCheck];
+        new BatchEvaluator(mode).evaluate(batch, moves, values);
+        markInPlay(batch, moves);
+        for (int i = 0; i < numToCheck; i++) {
+            Position position = Position.fromInt(batch[i]);
+            int valueBefore = solver.getValue(position);
+            int move = moves[i];
+            int valueAfter;
+            if (move < 0 || move >= Bitboard.NUM_CELLS || position.getOccupiedBy(move) != Player.UNSET) {
+                move = PerfectPlayTable.NO_MOVE;
+                valueAfter = PerfectPlayTable.LOSS;
+            } else {
+                valueAfter = -solver.getValue(position.apply(move));
+            }
+            if (valueAfter < valueBefore) {
+                deviations.add(new Deviation(position, move, valueBefore, valueAfter,
+                        inPlay[position.getIndex()]));
+            }
+        }
+        numChecked = numToCheck;
+    }
+
+    // Walks the games in which the AI plays the given moves of the positions it moves in
+    private void markInPlay(int[] aiPositions, byte[] aiMoves) {
+        int[] aiMoveByIndex = new int[Bitboard.NUM_INDICES];
+        for (int i = 0; i < aiPositions.length; i++) {
+            aiMoveByIndex[Position.getIndex(aiPositions[i])] = aiMoves[i];
+        }
+        int[] stack = new int[Bitboard.NUM_INDICES];
+        int numStacked = 0;
+        stack[numStacked++] = Position.EMPTY.toInt();
+        inPlay[Position.EMPTY.getIndex()] = true;
+        playParents[Position.EMPTY.getIndex()] = -1;
+        while (numStacked > 0) {
+            Position position = Position.fromInt(stack[--numStacked]);
+            if (position.isEnded()) {
+                continue;
+            }
+            int children = position.getMask(Player.UNSET);
+            if (position.getPlayerToMove() == aiPlayer) {
+                int move = aiMoveByIndex[position.getIndex()];
+                children &= (move >= 0 && move < Bitboard.NUM_CELLS) ? 1 << move : 0;
+            }
+            for (; children != 0; children &= children - 1) {
+                Position child = position.apply(Integer.numberOfTrailingZeros(children));
+                if (!inPlay[child.getIndex()]) {
+                    inPlay[child.getIndex()] = true;
+                    playParents[child.getIndex()] = position.toInt();
+                    stack[numStacked++] = child.toInt();
+                }
+            }
+        }
+    }
+
+    private Position getParent(Position position, boolean isInPlay) {
+        if (!isInPlay) {
+            return solver.getParent(position);
+        }
+        int parent = playParents[position.getIndex()];
+        return parent < 0 ? null : Position.fromInt(parent);
+    }
+
+    // Returns the cells from the empty board through the deviation to the end of the game
+    List<Integer> getLine(Deviation deviation) {
+        List<Integer> line = new ArrayList<>();
+        Position position = deviation.getPosition();
+        boolean isInPlay = deviation.isInPlay();
+        for (Position parent = getParent(position, isInPlay); parent != null;
+                position = parent, parent = getParent(parent, isInPlay)) {
+            line.add(0, Integer.numberOfTrailingZeros(position.getMask(Player.UNSET) ^ parent.getMask(Player.UNSET)));
+        }
+        if (deviation.getMove() == PerfectPlayTable.NO_MOVE) {
+            return line;
+        }
+        line.add(deviation.getMove());
+        position = deviation.getPosition().apply(deviation.getMove());
+        for (int cell = solver.getBestMove(position); cell >= 0; cell = solver.getBestMove(position)) {
+            line.add(cell);
+            position = position.apply(cell);
+        }
+        return line;
+    }
+
+    // Returns the report as one JSON object
+    String getReport(long elapsedNanos) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"mode\":\"").append(mode).append("\",\"ai\":\"").append(aiPlayer)
+                .append("\",\"positions\":").append(solver.getNumPositions())
+                .append(",\"checked\":").append(numChecked)
+                .append(",\"tableMismatches\":").append(numTableMismatches)
+                .append(",\"deviations\":").append(deviations.size())
+                .append(",\"losing\":").append(getNumLosing(false))
+                .append(",\"losingInPlay\":").append(getNumLosing(true))
+                .append(",\"elapsedMillis\":").append(String.format("%.1f", elapsedNanos / 1e6))
+                .append(",\"lines\":[");
+        for (int i = 0; i < deviations.size(); i++) {
+            Deviation deviation = deviations.get(i);
+            json.append(i == 0 ? "" : ",").append("\n{\"board\":\"").append(deviation.getPosition())
+                    .append("\",\"move\":").append(deviation.getMove() == PerfectPlayTable.NO_MOVE
+                            ? "null" : String.valueOf(deviation.getMove()))
+                    .append(",\"before\":\"").append(VALUE_NAMES[deviation.getValueBefore() + 1])
+                    .append("\",\"after\":\"").append(VALUE_NAMES[deviation.getValueAfter() + 1])
+                    .append("\",\"inPlay\":").append(deviation.isInPlay())
+                    .append(",\"line\":").append(getLine(deviation).toString().replace(" ", ""))
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    public static void main(String[] args) {
+        AIPlayer.Mode mode = AIPlayer.Mode.RULES;
+        Player aiPlayer = Player.CIRCLE;
+        for (String arg : args) {
+            if (arg.startsWith("--mode=")) {
+                mode = AIPlayer.Mode.valueOf(arg.substring("--mode=".length()));
+            } else if (arg.startsWith("--ai=")) {
+                aiPlayer = Player.valueOf(arg.substring("--ai=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+        }
+        long start = System.nanoTime();
+        RuleVerifier verifier = new RuleVerifier(mode, aiPlayer, RetrogradeSolver.solve());
+        verifier.verify();
+        System.out.println(verifier.getReport(System.nanoTime() - start));
+        // An illegal move counts as losing
+        if (verifier.getNumLosing(true) > 0 || verifier.getNumTableMismatches() > 0) {
+            System.exit(1);
+        }
+    }
+}
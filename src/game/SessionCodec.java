@@ -0,0 +1,110 @@
+package game;
+
+/**
+ * The SessionCodec class converts a game to a compact byte form and back, to keep idle
+ * sessions of a SessionManager in a few bytes instead of a GameState.
+ *
+ * The form holds the board size and win length in one byte each, the number of
+ * recorded moves and the number of those that were undone as varints, and then the
+ * cells of the recorded moves packed as in GameRecord, CROSS first. A game on the
+ * standard board takes at most 9 bytes. Decoding replays the moves and undoes the
+ * undone ones, so the board, the player to move and the undo/redo history come back.
+ * Only games whose players alternated from CROSS, as with setMove after initGame, can
+ * be encoded.
+ */
+final class SessionCodec {
+    private SessionCodec() {
+    }
+
+    static byte[] encode(GameState gameState) {
+        BoardGeometry geometry = gameState.getGeometry();
+        int numCells = geometry.getNumCells();
+        int cellBits = GameRecord.getCellBits(numCells);
+        int[] cells = new int[numCells];
+        int numMoves = gameState.getRecordedMoves(cells);
+        int numUndone = gameState.getNumUndone();
+        byte[] bytes = new byte[2 + getVarintSize(numMoves) + getVarintSize(numUndone)
+                + GameRecord.getMovesSize(numMoves, cellBits)];
+        bytes[0] = (byte) geometry.getSize();
+        bytes[1] = (byte) geometry.getWinLength();
+        int pos = putVarint(bytes, 2, numMoves);
+        pos = putVarint(bytes, pos, numUndone);
+        if (cellBits == 4) {
+            for (int i = 0; i < numMoves; i += 2) {
+                int high = i + 1 < numMoves ? cells[i + 1] << 4 : 0;
+                bytes[pos++] = (byte) (cells[i] | high);
+            }
+        } else if (cellBits == Byte.SIZE) {
+            for (int i = 0; i < numMoves; i++) {
+                bytes[pos++] = (byte) cells[i];
+            }
+        } else {
+            for (int i = 0; i < numMoves; i++) {
+                bytes[pos++] = (byte) (cells[i] >>> 8);
+                bytes[pos++] = (byte) cells[i];
+            }
+        }
+        return bytes;
+    }
+
+    static GameState decode(byte[] bytes) {
+        if (bytes.length < 4) {
+            throw new IllegalArgumentException("A session takes at least 4 bytes, not " + bytes.length);
+        }
+        GameState gameState = new GameState(bytes[0] & 0xFF, bytes[1] & 0xFF);
+        int numCells = gameState.getGeometry().getNumCells();
+        int cellBits = GameRecord.getCellBits(numCells);
+        int[] pos = {2};
+        int numMoves = getVarint(bytes, pos);
+        int numUndone = getVarint(bytes, pos);
+        if (numMoves > numCells || numUndone > numMoves
+                || pos[0] + GameRecord.getMovesSize(numMoves, cellBits) != bytes.length) {
+            throw new IllegalArgumentException("Invalid session of " + numMoves + " moves, " + numUndone
+                    + " undone, in " + bytes.length + " bytes");
+        }
+        for (int i = 0; i < numMoves; i++) {
+            int cell;
+            if (cellBits == 4) {
+                cell = (bytes[pos[0] + i / 2] >>> (i % 2 * 4)) & 0xF;
+            } else if (cellBits == Byte.SIZE) {
+                cell = bytes[pos[0] + i] & 0xFF;
+            } else {
+                cell = (bytes[pos[0] + 2 * i] & 0xFF) << 8 | (bytes[pos[0] + 2 * i + 1] & 0xFF);
+            }
+            if (cell >= numCells || gameState.isOccupied(cell) || gameState.getGameEnded()) {
+                throw new IllegalArgumentException("Invalid cell " + cell + " in move " + i);
+            }
+            gameState.setMove(cell);
+        }
+        for (int i = 0; i < numUndone; i++) {
+            gameState.undo();
+        }
+        return gameState;
+    }
+
+    private static int getVarintSize(int value) {
+        return value < 0x80 ? 1 : 2;
+    }
+
+    // Values are at most the 361 cells of a 19x19 board, so two bytes suffice
+    private static int putVarint(byte[] bytes, int pos, int value) {
+        if (value < 0x80) {
+            bytes[pos] = (byte) value;
+            return pos + 1;
+        }
+        bytes[pos] = (byte) (value & 0x7F | 0x80);
+        bytes[pos + 1] = (byte) (value >>> 7);
+        return pos + 2;
+    }
+
+    private static int getVarint(byte[] bytes, int[] pos) {
+        int value = bytes[pos[0]++] & 0xFF;
+        if (value >= 0x80) {
+            if (pos[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated session");
+            }
+            value = (value & 0x7F) | (bytes[pos[0]++] & 0xFF) << 7;
+        }
+        return value;
+    }
+}
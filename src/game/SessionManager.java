@@ -0,0 +1,337 @@
+package game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The SessionManager class hosts many human-vs-AI games at once, without JavaFX. Each
+ * session is a GameState on which the human plays CROSS and the AI answers as CIRCLE,
+ * with the same undo and redo behavior as Main.
+ *
+ * Sessions own no AI: a move is computed on a copy of the session's board by one of a
+ * fixed number of AI workers, each holding one AIPlayer per board geometry. A calling
+ * thread waits for a free worker, so the memory of the AI and the number of searches
+ * running at once are bounded by the number of workers, however many threads call in.
+ * The standard board is answered from the PerfectPlayTable; other boards use a
+ * single-threaded MctsStrategy limited to moveMillis of search per move. Commands on
+ * one session are serialized, commands on different sessions run in parallel.
+ *
+ * With setEviction, evictIdle() drops the GameState of sessions that have been idle
+ * for a while and keeps them in their SessionCodec form, and writes sessions idle for
+ * longer to a spill file, so they hold no game data on the heap at all. The next
+ * command on an evicted session decodes it again. The spill file only grows while the
+ * manager is open; it is deleted by close().
+ */
+final class SessionManager implements AutoCloseable {
+    static final long DEFAULT_MOVE_MILLIS = 50;
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final long moveMillis;
+    private final BlockingQueue<AIWorker> idleWorkers;
+
+    private long compactNanos = Long.MAX_VALUE;
+    private long spillNanos = Long.MAX_VALUE;
+    private Path spillPath;
+    private FileChannel spillChannel;
+    private final AtomicLong spillEnd = new AtomicLong();
+
+    /**
+     * The Session class is one hosted game. It holds either a GameState, or its compact
+     * form, or the position of the compact form in the spill file. Lock on it while
+     * using its game.
+     */
+    static final class Session {
+        private final long id;
+        private GameState gameState;
+        private byte[] compact;
+        private long spillPosition = -1;
+        private int spillLength;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        Session(long anId, GameState aGameState) {
+            id = anId;
+            gameState = aGameState;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        boolean isLive() {
+            return gameState != null;
+        }
+
+        boolean isSpilled() {
+            return spillPosition >= 0;
+        }
+    }
+
+    /**
+     * The AIWorker class holds the AIPlayers of one AI worker, one per board geometry,
+     * each on a scratch board. It is used by one thread at a time.
+     */
+    private static final class AIWorker {
+        private final int index;
+        private final Map<BoardGeometry, AIPlayer> players = new HashMap<>();
+
+        AIWorker(int anIndex) {
+            index = anIndex;
+        }
+    }
+
+    SessionManager() {
+        this(DEFAULT_MOVE_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    SessionManager(long aMoveMillis, int aNumAIWorkers) {
+        if (aNumAIWorkers < 1) {
+            throw new IllegalArgumentException("At least one AI worker is needed: " + aNumAIWorkers);
+        }
+        moveMillis = aMoveMillis;
+        idleWorkers = new ArrayBlockingQueue<>(aNumAIWorkers);
+        for (int i = 0; i < aNumAIWorkers; i++) {
+            idleWorkers.add(new AIWorker(i));
+        }
+    }
+
+    /**
+     * Makes evictIdle() compact sessions idle for compactMillis and spill sessions idle
+     * for spillMillis to a file at spillPath, which is created or truncated.
+     */
+    void setEviction(long compactMillis, long spillMillis, Path aSpillPath) throws IOException {
+        if (spillChannel != null) {
+            throw new IllegalStateException("Eviction is already set");
+        }
+        compactNanos = TimeUnit.MILLISECONDS.toNanos(compactMillis);
+        spillNanos = TimeUnit.MILLISECONDS.toNanos(spillMillis);
+        spillPath = aSpillPath;
+        spillChannel = FileChannel.open(spillPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Starts a new game and returns its session id
+    long create(int size, int winLength) {
+        GameState gameState = new GameState(size, winLength);
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new Session(id, gameState));
+        return id;
+    }
+
+    Session get(long id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("No session " + id);
+        }
+        return session;
+    }
+
+    void close(long id) {
+        if (sessions.remove(id) == null) {
+            throw new IllegalArgumentException("No session " + id);
+        }
+    }
+
+    int getNumSessions() {
+        return sessions.size();
+    }
+
+    // Returns the game of a locked session, decoding it if it was evicted
+    private GameState open(Session session) {
+        session.lastUsedNanos = System.nanoTime();
+        if (session.gameState == null) {
+            byte[] compact = session.compact;
+            if (compact == null) {
+                compact = readSpilled(session.spillPosition, session.spillLength);
+            }
+            session.gameState = SessionCodec.decode(compact);
+            session.compact = null;
+            session.spillPosition = -1;
+        }
+        return session.gameState;
+    }
+
+    // Applies action to the game of a session while holding its lock
+    <T> T withGame(long id, Function<GameState, T> action) {
+        Session session = get(id);
+        synchronized (session) {
+            return action.apply(open(session));
+        }
+    }
+
+    private AIPlayer getScratchPlayer(AIWorker worker, BoardGeometry geometry) {
+        return worker.players.computeIfAbsent(geometry, g -> {
+            GameState scratch = new GameState(g.getSize(), g.getWinLength());
+            if (g.isStandard()) {
+                return new AIPlayer(scratch, AIPlayer.Mode.TABLE);
+            }
+            AIPlayer aiPlayer = new AIPlayer(scratch, AIPlayer.Mode.MCTS);
+            aiPlayer.setStrategy(new MctsStrategy(scratch, 1, MctsStrategy.getDefaultIterations(g), moveMillis,
+                    worker.index));
+            return aiPlayer;
+        });
+    }
+
+    // Computes the AI answer to humanMove in gameState on the next free AI worker
+    private GridNumber getAIMove(GameState gameState, GridNumber humanMove) {
+        AIWorker worker;
+        try {
+            worker = idleWorkers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an AI worker", e);
+        }
+        try {
+            AIPlayer aiPlayer = getScratchPlayer(worker, gameState.getGeometry());
+            aiPlayer.getGameState().copyFrom(gameState);
+            return aiPlayer.getGameMove(humanMove);
+        } finally {
+            idleWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Plays the human move and the AI answer in a session and returns the AI move, or
+     * an invalid GridNumber if the game ended with the human move.
+     */
+    GridNumber move(long id, GridNumber humanMove) {
+        return withGame(id, gameState -> {
+            if (gameState.getGameEnded()) {
+                throw new IllegalStateException("The game has ended, reset it");
+            }
+            if (!humanMove.isValid() || humanMove.getRow() >= gameState.getSize()
+                    || humanMove.getColumn() >= gameState.getSize()) {
+                throw new IllegalArgumentException("Location is off the board");
+            }
+            if (gameState.isOccupied(humanMove)) {
+                throw new IllegalArgumentException("Location is occupied");
+            }
+            gameState.setMove(humanMove);
+            if (gameState.getGameEnded()) {
+                return GridNumber.getInvalidObject();
+            }
+            GridNumber aiMove = getAIMove(gameState, humanMove);
+            gameState.setMove(aiMove);
+            return aiMove;
+        });
+    }
+
+    // Takes back the last AI move and the human move before it
+    void undo(long id) {
+        withGame(id, gameState -> {
+            gameState.undo();
+            // The human move that ended a game has no AI answer to take back
+            if (gameState.getPlayerToMove() != Player.CROSS) {
+                gameState.undo();
+            }
+            return null;
+        });
+    }
+
+    void redo(long id) {
+        withGame(id, gameState -> {
+            gameState.redo();
+            gameState.redo();
+            return null;
+        });
+    }
+
+    void reset(long id) {
+        withGame(id, gameState -> {
+            gameState.initGame();
+            return null;
+        });
+    }
+
+    /**
+     * Compacts or spills the sessions idle for longer than set by setEviction and
+     * returns the number of sessions evicted. Sessions in use are skipped.
+     */
+    int evictIdle() {
+        long now = System.nanoTime();
+        int numEvicted = 0;
+        for (Session session : sessions.values()) {
+            if (now - session.lastUsedNanos < compactNanos) {
+                continue;
+            }
+            synchronized (session) {
+                long idleNanos = now - session.lastUsedNanos;
+                if (idleNanos < compactNanos || session.isSpilled()
+                        || (idleNanos < spillNanos && !session.isLive())) {
+                    continue;
+                }
+                if (session.isLive()) {
+                    session.compact = SessionCodec.encode(session.gameState);
+                    session.gameState = null;
+                }
+                if (idleNanos >= spillNanos) {
+                    session.spillLength = session.compact.length;
+                    session.spillPosition = writeSpilled(session.compact);
+                    session.compact = null;
+                }
+            }
+            numEvicted++;
+        }
+        return numEvicted;
+    }
+
+    private long writeSpilled(byte[] compact) {
+        long position = spillEnd.getAndAdd(compact.length);
+        ByteBuffer buffer = ByteBuffer.wrap(compact);
+        try {
+            while (buffer.hasRemaining()) {
+                spillChannel.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill a session to " + spillPath, e);
+        }
+        return position;
+    }
+
+    private byte[] readSpilled(long position, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (spillChannel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read a session from " + spillPath, e);
+        }
+        return buffer.array();
+    }
+
+    // Returns the number of sessions that hold a GameState, compact form or neither
+    int[] getNumSessionsByState() {
+        int[] counts = new int[3];
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                counts[session.isLive() ? 0 : session.isSpilled() ? 2 : 1]++;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillChannel != null) {
+            spillChannel.close();
+            spillChannel = null;
+            Files.deleteIfExists(spillPath);
+        }
+    }
+}
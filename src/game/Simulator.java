@@ -0,0 +1,210 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The Simulator class plays AI-vs-AI and AI-vs-random games headless, without JavaFX,
+ * and reports the games per second and the distribution of results.
+ *
+ * The games are sharded across a fixed thread pool. Every worker owns one GameState
+ * with one AIPlayer per side, so workers share no mutable state. With --record the
+ * games are also written to a game record file, see GameRecord, in the order they end.
+ * With --metrics=true AIMetrics are collected and printed at the end.
+ *
+ * Usage: Simulator [--games=N] [--threads=N] [--cross=MODE] [--circle=MODE]
+ *                  [--size=N] [--win=K] [--seed=N] [--record=FILE] [--metrics=true]
+ * where MODE is one of the AIPlayer.Mode names.
+ */
+class Simulator {
+    private final int numGames;
+    private final int numThreads;
+    private final AIPlayer.Mode crossMode;
+    private final AIPlayer.Mode circleMode;
+    private final int size;
+    private final int winLength;
+    private final long seed;
+    private GameRecordWriter recorder;
+
+    /**
+     * The Result class holds the outcome counts of a simulation.
+     */
+    static class Result {
+        // Indexed by the ordinal of the winner, UNSET counts the draws
+        private final long[] numResults = new long[Player.values().length];
+        private long numMoves;
+        private long elapsedNanos;
+
+        void add(Result other) {
+            for (int i = 0; i < numResults.length; i++) {
+                numResults[i] += other.numResults[i];
+            }
+            numMoves += other.numMoves;
+        }
+
+        long getNumGames() {
+            long numGames = 0;
+            for (long count : numResults) {
+                numGames += count;
+            }
+            return numGames;
+        }
+
+        long getNumWins(Player player) {
+            return numResults[player.ordinal()];
+        }
+
+        long getNumDraws() {
+            return numResults[Player.UNSET.ordinal()];
+        }
+
+        long getNumMoves() {
+            return numMoves;
+        }
+
+        double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : getNumGames() * 1e9 / elapsedNanos;
+        }
+
+        double getMovesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : numMoves * 1e9 / elapsedNanos;
+        }
+    }
+
+    Simulator(int aNumGames, int aNumThreads, AIPlayer.Mode aCrossMode, AIPlayer.Mode aCircleMode,
+              int aSize, int aWinLength, long aSeed) {
+        numGames = aNumGames;
+        numThreads = aNumThreads;
+        crossMode = aCrossMode;
+        circleMode = aCircleMode;
+        size = aSize;
+        winLength = aWinLength;
+        seed = aSeed;
+    }
+
+    // Records every game played to recorder, or no game if it is null
+    void setRecorder(GameRecordWriter aRecorder) {
+        recorder = aRecorder;
+    }
+
+    private AIPlayer createPlayer(GameState gameState, AIPlayer.Mode mode, long playerSeed) {
+        AIPlayer player = new AIPlayer(gameState, mode);
+        if (mode == AIPlayer.Mode.RANDOM) {
+            // Seed random players so a run can be repeated
+            player.setStrategy(new RandomStrategy(gameState, new Random(playerSeed)));
+        }
+        return player;
+    }
+
+    private Result playShard(int worker, int shardGames) throws IOException {
+        GameState gameState = new GameState(size, winLength);
+        int[] cells = new int[gameState.getGeometry().getNumCells()];
+        AIPlayer crossPlayer = createPlayer(gameState, crossMode, seed * 31 + 2 * worker);
+        AIPlayer circlePlayer = createPlayer(gameState, circleMode, seed * 31 + 2 * worker + 1);
+        Result result = new Result();
+        for (int g = 0; g < shardGames; g++) {
+            gameState.initGame();
+            GridNumber lastMove = GridNumber.getInvalidObject();
+            while (!gameState.getGameEnded()) {
+                AIPlayer player = gameState.getPlayerToMove() == Player.CROSS ? crossPlayer : circlePlayer;
+                lastMove = player.getGameMove(lastMove);
+                gameState.setMove(lastMove);
+                result.numMoves++;
+            }
+            result.numResults[gameState.getWinner().ordinal()]++;
+            if (recorder != null) {
+                int numMoves = gameState.getMoves(cells);
+                synchronized (recorder) {
+                    recorder.write(cells, numMoves);
+                }
+            }
+        }
+        return result;
+    }
+
+    Result run() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            long start = System.nanoTime();
+            List<Future<Result>> shards = new ArrayList<>();
+            for (int worker = 0; worker < numThreads; worker++) {
+                // Spread the remainder over the first workers
+                int shardGames = numGames / numThreads + (worker < numGames % numThreads ? 1 : 0);
+                int shardWorker = worker;
+                shards.add(executor.submit(() -> playShard(shardWorker, shardGames)));
+            }
+            Result total = new Result();
+            for (Future<Result> shard : shards) {
+                total.add(shard.get());
+            }
+            total.elapsedNanos = System.nanoTime() - start;
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return named;
+    }
+
+    private static String getPercent(long count, long total) {
+        return String.format("%.2f%%", total == 0 ? 0.0 : 100.0 * count / total);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> named = parseArgs(args);
+        int numGames = Integer.parseInt(named.getOrDefault("games", "1000000"));
+        int numThreads = Integer.parseInt(named.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        AIPlayer.Mode crossMode = AIPlayer.Mode.valueOf(named.getOrDefault("cross", "RANDOM"));
+        AIPlayer.Mode circleMode = AIPlayer.Mode.valueOf(named.getOrDefault("circle", "RULES"));
+        int size = Integer.parseInt(named.getOrDefault("size", "3"));
+        int winLength = Integer.parseInt(named.getOrDefault("win", String.valueOf(size)));
+        long seed = Long.parseLong(named.getOrDefault("seed", "1"));
+        boolean metrics = Boolean.parseBoolean(named.getOrDefault("metrics", "false"));
+        if (metrics) {
+            AIMetrics.setEnabled(true);
+        }
+        AIMetrics.registerMBean();
+
+        Simulator simulator = new Simulator(numGames, numThreads, crossMode, circleMode, size, winLength, seed);
+        Result result;
+        String recordFile = named.get("record");
+        if (recordFile != null) {
+            try (GameRecordWriter recorder = GameRecordWriter.create(Paths.get(recordFile), size, winLength)) {
+                simulator.setRecorder(recorder);
+                result = simulator.run();
+            }
+        } else {
+            result = simulator.run();
+        }
+        long games = result.getNumGames();
+        System.out.printf("%d games of %dx%d (%d in a row), X=%s vs O=%s on %d threads%n",
+                games, size, size, winLength, crossMode, circleMode, numThreads);
+        System.out.printf("%.0f games/s, %.0f moves/s%n", result.getGamesPerSecond(), result.getMovesPerSecond());
+        System.out.printf("X wins: %d (%s), O wins: %d (%s), draws: %d (%s)%n",
+                result.getNumWins(Player.CROSS), getPercent(result.getNumWins(Player.CROSS), games),
+                result.getNumWins(Player.CIRCLE), getPercent(result.getNumWins(Player.CIRCLE), games),
+                result.getNumDraws(), getPercent(result.getNumDraws(), games));
+        if (metrics) {
+            System.out.print(AIMetrics.dump());
+        }
+    }
+}
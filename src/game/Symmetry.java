@@ -0,0 +1,107 @@
+package game;
+
+/**
+ * The Symmetry class maps positions onto the 8 rotations and reflections of the 3x3
+ * grid. A position is canonicalized to the symmetric representative with the smallest
+ * base-3 index, see Bitboard.getIndex().
+ */
+final class Symmetry {
+    static final int NUM_TRANSFORMS = 8;
+    static final int IDENTITY = 0;
+
+    // CELL_MAP[t][cell] is the cell that cell is moved to by transform t
+    private static final int[][] CELL_MAP;
+    private static final int[] INVERSE;
+    // MASK_MAP[t][mask] is the mask moved by transform t
+    private static final short[][] MASK_MAP;
+
+    static {
+        CELL_MAP = new int[NUM_TRANSFORMS][Bitboard.NUM_CELLS];
+        int last = Bitboard.SIZE - 1;
+        for (int r = 0; r < Bitboard.SIZE; r++) {
+            for (int c = 0; c < Bitboard.SIZE; c++) {
+                int cell = Bitboard.getCell(r, c);
+                CELL_MAP[0][cell] = cell;                                // identity
+                CELL_MAP[1][cell] = Bitboard.getCell(c, last - r);       // rotate 90
+                CELL_MAP[2][cell] = Bitboard.getCell(last - r, last - c); // rotate 180
+                CELL_MAP[3][cell] = Bitboard.getCell(last - c, r);       // rotate 270
+                CELL_MAP[4][cell] = Bitboard.getCell(r, last - c);       // mirror columns
+                CELL_MAP[5][cell] = Bitboard.getCell(last - r, c);       // mirror rows
+                CELL_MAP[6][cell] = Bitboard.getCell(c, r);              // main diagonal
+                CELL_MAP[7][cell] = Bitboard.getCell(last - c, last - r); // anti-diagonal
+            }
+        }
+
+        INVERSE = new int[NUM_TRANSFORMS];
+        for (int t = 0; t < NUM_TRANSFORMS; t++) {
+            for (int u = 0; u < NUM_TRANSFORMS; u++) {
+                boolean isInverse = true;
+                for (int cell = 0; cell < Bitboard.NUM_CELLS; cell++) {
+                    isInverse &= CELL_MAP[u][CELL_MAP[t][cell]] == cell;
+                }
+                if (isInverse) {
+                    INVERSE[t] = u;
+                }
+            }
+        }
+
+        MASK_MAP = new short[NUM_TRANSFORMS][Bitboard.FULL_MASK + 1];
+        for (int t = 0; t < NUM_TRANSFORMS; t++) {
+            for (int mask = 0; mask <= Bitboard.FULL_MASK; mask++) {
+                int mapped = 0;
+                for (int cell = 0; cell < Bitboard.NUM_CELLS; cell++) {
+                    if ((mask & (1 << cell)) != 0) {
+                        mapped |= 1 << CELL_MAP[t][cell];
+                    }
+                }
+                MASK_MAP[t][mask] = (short) mapped;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    static int transformCell(int cell, int transform) {
+        return CELL_MAP[transform][cell];
+    }
+
+    static int transformMask(int mask, int transform) {
+        return MASK_MAP[transform][mask];
+    }
+
+    static int getInverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    // Returns the canonical index and the transform that produces it, packed as
+    // (index << 3) | transform
+    static int canonicalize(int crossMask, int circleMask) {
+        int bestIndex = Integer.MAX_VALUE;
+        int bestTransform = IDENTITY;
+        for (int t = 0; t < NUM_TRANSFORMS; t++) {
+            int index = Bitboard.getIndex(transformMask(crossMask, t), transformMask(circleMask, t));
+            if (index < bestIndex) {
+                bestIndex = index;
+                bestTransform = t;
+            }
+        }
+        return (bestIndex << 3) | bestTransform;
+    }
+
+    static int canonicalize(GameState gameState) {
+        return canonicalize(gameState.getMask(Player.CROSS), gameState.getMask(Player.CIRCLE));
+    }
+
+    static int canonicalize(Position position) {
+        return canonicalize(position.getMask(Player.CROSS), position.getMask(Player.CIRCLE));
+    }
+
+    static int getCanonicalIndex(int canonical) {
+        return canonical >>> 3;
+    }
+
+    static int getTransform(int canonical) {
+        return canonical & 0x7;
+    }
+}
@@ -0,0 +1,25 @@
+package game;
+
+/**
+ * The TableStrategy class answers every move with a single lookup into the
+ * PerfectPlayTable.
+ */
+class TableStrategy implements MoveStrategy {
+    private GameState gameState;
+    private final PerfectPlayTable table;
+
+    TableStrategy(GameState aGameState) {
+        gameState = aGameState;
+        // Build the shared table up front rather than on the first move
+        table = PerfectPlayTable.getInstance();
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        int cell = table.getMove(gameState.getPositionIndex());
+        if (cell == PerfectPlayTable.NO_MOVE) {
+            return GridNumber.getInvalidObject();
+        }
+        return GridNumber.of(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+    }
+}
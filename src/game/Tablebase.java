@@ -0,0 +1,203 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The Tablebase class reads the perfect-play table of the standard board from a file
+ * written offline, so a JVM does not have to solve the game on startup. The file is
+ * memory-mapped and every lookup reads the mapped buffer directly, nothing is copied
+ * to the heap.
+ *
+ * The file starts with a 16 byte big-endian header: the magic number "TTTB", the
+ * format version, the number of records and the number of reachable positions. It is
+ * followed by one 4 byte record per canonical position, see Symmetry, in ascending
+ * order of the canonical base-3 index, see Bitboard.getIndex(), so a lookup
+ * canonicalizes the position and binary searches the records. A record holds the
+ * canonical index in 2 bytes, then a byte with the best move in the canonical frame in
+ * the low 4 bits, the value + 1 in bits 4-5 and a reachable flag in bit 6, and a byte
+ * with the number of moves until the game ends.
+ *
+ * Generate the file with: Tablebase [FILE]
+ * The default file is tablebase.bin, the system property tictactoe.tablebase selects
+ * another one for getDefault().
+ */
+final class Tablebase {
+    static final int MAGIC = 0x54545442;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 4;
+    static final String DEFAULT_FILE = "tablebase.bin";
+    static final String FILE_PROPERTY = "tictactoe.tablebase";
+
+    private static final int REACHABLE = 0x40;
+
+    private final MappedByteBuffer buffer;
+    private final int numRecords;
+    private final int numPositions;
+
+    private Tablebase(MappedByteBuffer aBuffer) throws IOException {
+        buffer = aBuffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tablebase file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported tablebase version " + version + ", expected " + VERSION);
+        }
+        numRecords = buffer.getInt(8);
+        if (numRecords < 0 || numRecords > Bitboard.NUM_INDICES
+                || buffer.capacity() != HEADER_SIZE + numRecords * RECORD_SIZE) {
+            throw new IOException("Tablebase file has the wrong size");
+        }
+        numPositions = buffer.getInt(12);
+    }
+
+    private static class Holder {
+        private static final Tablebase DEFAULT = loadDefault();
+    }
+
+    // Runs once, so a file that cannot be read is reported once
+    private static Tablebase loadDefault() {
+        Path path = Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return map(path);
+        } catch (IOException e) {
+            System.err.println("Cannot read tablebase " + path + ", using the rule cascade instead: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    // Returns the tablebase mapped from the default file, or null if there is no file or
+    // it cannot be read
+    static Tablebase getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    static Tablebase map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new Tablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Returns true if index is a reachable position that is its own canonical position
+    private static boolean isCanonical(PerfectPlayTable table, int index) {
+        return table.isReachable(index) && Symmetry.getCanonicalIndex(Symmetry.canonicalize(
+                Bitboard.getMask(index, Player.CROSS), Bitboard.getMask(index, Player.CIRCLE))) == index;
+    }
+
+    static void write(PerfectPlayTable table, Path path) throws IOException {
+        int numRecords = 0;
+        for (int index = 0; index < Bitboard.NUM_INDICES; index++) {
+            if (isCanonical(table, index)) {
+                numRecords++;
+            }
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + numRecords * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(numRecords).putInt(table.getNumPositions());
+        // A canonical position is its own frame, so its move is written as the table has it
+        for (int index = 0; index < Bitboard.NUM_INDICES; index++) {
+            if (isCanonical(table, index)) {
+                int entry = REACHABLE | ((table.getValue(index) + 1) << 4) | table.getMove(index);
+                out.putShort((short) index).put((byte) entry).put((byte) table.getDistance(index));
+            }
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    // Returns the record of the position and the transform onto its canonical position,
+    // packed as (record << 3) | transform, or -1 if the position is not reachable
+    private int find(int crossMask, int circleMask) {
+        int canonical = Symmetry.canonicalize(crossMask, circleMask);
+        int key = Symmetry.getCanonicalIndex(canonical);
+        int low = 0;
+        int high = numRecords - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = buffer.getShort(HEADER_SIZE + mid * RECORD_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return (mid << 3) | Symmetry.getTransform(canonical);
+            }
+        }
+        return -1;
+    }
+
+    private int getEntry(int found) {
+        return buffer.get(HEADER_SIZE + (found >>> 3) * RECORD_SIZE + 2);
+    }
+
+    int getNumRecords() {
+        return numRecords;
+    }
+
+    int getNumPositions() {
+        return numPositions;
+    }
+
+    boolean isReachable(int crossMask, int circleMask) {
+        int found = find(crossMask, circleMask);
+        return found >= 0 && (getEntry(found) & REACHABLE) != 0;
+    }
+
+    // Returns the best cell to play, or PerfectPlayTable.NO_MOVE if the position has
+    // ended or is not reachable
+    int getMove(int crossMask, int circleMask) {
+        int found = find(crossMask, circleMask);
+        if (found < 0) {
+            return PerfectPlayTable.NO_MOVE;
+        }
+        int move = getEntry(found) & 0xF;
+        if (move == PerfectPlayTable.NO_MOVE) {
+            return PerfectPlayTable.NO_MOVE;
+        }
+        return Symmetry.transformCell(move, Symmetry.getInverse(Symmetry.getTransform(found)));
+    }
+
+    // Returns PerfectPlayTable.LOSS, DRAW or WIN for the player to move, LOSS for a
+    // position that is not reachable
+    int getValue(int crossMask, int circleMask) {
+        int found = find(crossMask, circleMask);
+        return found < 0 ? PerfectPlayTable.LOSS : ((getEntry(found) >> 4) & 0x3) - 1;
+    }
+
+    // Returns the number of moves until the game ends when both sides play perfectly
+    int getDistance(int crossMask, int circleMask) {
+        int found = find(crossMask, circleMask);
+        return found < 0 ? 0 : buffer.get(HEADER_SIZE + (found >>> 3) * RECORD_SIZE + 3);
+    }
+
+    int getMove(GameState gameState) {
+        return getMove(gameState.getMask(Player.CROSS), gameState.getMask(Player.CIRCLE));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        long start = System.nanoTime();
+        PerfectPlayTable table = PerfectPlayTable.generate();
+        write(table, path);
+        System.out.printf("Wrote %d positions to %s (%d bytes) in %.1f ms%n", table.getNumPositions(), path,
+                Files.size(path), (System.nanoTime() - start) / 1e6);
+    }
+}
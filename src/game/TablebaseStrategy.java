@@ -0,0 +1,25 @@
+package game;
+
+/**
+ * The TablebaseStrategy class answers every move from a memory-mapped Tablebase file.
+ * Each lookup canonicalizes the position and binary searches the records of the file,
+ * so it is slower than the single array read of TableStrategy.
+ */
+class TablebaseStrategy implements MoveStrategy {
+    private GameState gameState;
+    private final Tablebase tablebase;
+
+    TablebaseStrategy(GameState aGameState, Tablebase aTablebase) {
+        gameState = aGameState;
+        tablebase = aTablebase;
+    }
+
+    @Override
+    public GridNumber getMove(GridNumber lastMove) {
+        int cell = tablebase.getMove(gameState);
+        if (cell == PerfectPlayTable.NO_MOVE) {
+            return GridNumber.getInvalidObject();
+        }
+        return GridNumber.of(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+    }
+}
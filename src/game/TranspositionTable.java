@@ -0,0 +1,134 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The TranspositionTable class is a bounded cache of evaluation results. Entries are
+ * keyed by the canonical position, see Symmetry, so all 8 symmetric variants of a
+ * position share one slot. The best move is stored in the canonical frame and mapped
+ * back onto the probed position on a hit.
+ *
+ * The table is direct mapped: a store replaces whatever was in the slot before.
+ */
+final class TranspositionTable {
+    static final int MISS = Integer.MIN_VALUE;
+    static final int NO_MOVE = 0xF;
+
+    private final boolean useSymmetry;
+    // Fibonacci hashing keeps the top log2(slots) bits of the product
+    private final int slotShift;
+    // Keys are the canonical index + 1 so that 0 marks an empty slot
+    private final int[] keys;
+    private final int[] values;
+    private final byte[] moves;
+
+    private long numHits;
+    private long numMisses;
+    private int numEntries;
+
+    TranspositionTable(int capacity) {
+        this(capacity, true);
+    }
+
+    // Without symmetry the table is keyed by the raw position index, for comparison
+    TranspositionTable(int capacity, boolean aUseSymmetry) {
+        int numSlots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        useSymmetry = aUseSymmetry;
+        slotShift = Integer.SIZE - Integer.numberOfTrailingZeros(numSlots);
+        keys = new int[numSlots];
+        values = new int[numSlots];
+        moves = new byte[numSlots];
+    }
+
+    private int canonicalize(int crossMask, int circleMask) {
+        if (useSymmetry) {
+            return Symmetry.canonicalize(crossMask, circleMask);
+        }
+        return Bitboard.getIndex(crossMask, circleMask) << 3 | Symmetry.IDENTITY;
+    }
+
+    private int getSlot(int index) {
+        return index * 0x9E3779B9 >>> slotShift;
+    }
+
+    // Returns the entry of the position packed as (value << 4) | move, or MISS
+    int probe(int crossMask, int circleMask) {
+        int canonical = canonicalize(crossMask, circleMask);
+        int index = Symmetry.getCanonicalIndex(canonical);
+        int slot = getSlot(index);
+        if (keys[slot] != index + 1) {
+            numMisses++;
+            return MISS;
+        }
+        numHits++;
+        int move = moves[slot];
+        if (move != NO_MOVE) {
+            move = Symmetry.transformCell(move, Symmetry.getInverse(Symmetry.getTransform(canonical)));
+        }
+        return (values[slot] << 4) | move;
+    }
+
+    int probe(GameState gameState) {
+        return probe(gameState.getMask(Player.CROSS), gameState.getMask(Player.CIRCLE));
+    }
+
+    int probe(Position position) {
+        return probe(position.getMask(Player.CROSS), position.getMask(Player.CIRCLE));
+    }
+
+    void store(int crossMask, int circleMask, int move, int value) {
+        int canonical = canonicalize(crossMask, circleMask);
+        int index = Symmetry.getCanonicalIndex(canonical);
+        int slot = getSlot(index);
+        if (keys[slot] == 0) {
+            numEntries++;
+        }
+        keys[slot] = index + 1;
+        values[slot] = value;
+        moves[slot] = (byte) (move == NO_MOVE ? NO_MOVE : Symmetry.transformCell(move, Symmetry.getTransform(canonical)));
+    }
+
+    void store(GameState gameState, int move, int value) {
+        store(gameState.getMask(Player.CROSS), gameState.getMask(Player.CIRCLE), move, value);
+    }
+
+    void store(Position position, int move, int value) {
+        store(position.getMask(Player.CROSS), position.getMask(Player.CIRCLE), move, value);
+    }
+
+    static int getMove(int entry) {
+        return entry & 0xF;
+    }
+
+    static int getValue(int entry) {
+        return entry >> 4;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        numEntries = 0;
+        numHits = 0;
+        numMisses = 0;
+    }
+
+    int getCapacity() {
+        return keys.length;
+    }
+
+    int getNumEntries() {
+        return numEntries;
+    }
+
+    long getNumHits() {
+        return numHits;
+    }
+
+    long getNumMisses() {
+        return numMisses;
+    }
+
+    double getHitRate() {
+        long probes = numHits + numMisses;
+        return probes == 0 ? 0.0 : (double) numHits / probes;
+    }
+}
@@ -0,0 +1,94 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The AIPlayerAllocationTest class checks that AIPlayer.getGameMove does not allocate,
+ * using the per-thread allocation counter of the JVM around rounds of recorded positions.
+ */
+class AIPlayerAllocationTest {
+    private static final int NUM_GAMES = 500;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    // Each position is the cells played, CROSS first, up to and including the last
+    // human move
+    private static int[][] recordPositions(long seed, int numGames) {
+        List<int[]> positions = new ArrayList<>();
+        Random random = new Random(seed);
+        GameState gameState = new GameState();
+        AIPlayer aiPlayer = new AIPlayer(gameState);
+        for (int g = 0; g < numGames; g++) {
+            gameState.initGame();
+            int[] moves = new int[Bitboard.NUM_CELLS];
+            int numMoves = 0;
+            while (!gameState.getGameEnded()) {
+                int cell;
+                do {
+                    cell = random.nextInt(Bitboard.NUM_CELLS);
+                } while (gameState.isOccupied(cell));
+                gameState.setMove(cell);
+                moves[numMoves++] = cell;
+                if (gameState.getGameEnded()) {
+                    break;
+                }
+                positions.add(Arrays.copyOf(moves, numMoves));
+                GridNumber aiMove = aiPlayer.getGameMove(GridNumber.of(cell / 3, cell % 3));
+                gameState.setMove(aiMove);
+                moves[numMoves++] = Bitboard.getCell(aiMove);
+            }
+        }
+        return positions.toArray(new int[0][]);
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Iterates over an array, not a List, so the loop itself allocates no iterator
+    private static int runRound(int[][] positions, GameState gameState, AIPlayer aiPlayer) {
+        int checksum = 0;
+        for (int[] position : positions) {
+            gameState.initGame();
+            Player player = Player.CROSS;
+            for (int cell : position) {
+                gameState.setOccupied(cell, player);
+                player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+            }
+            int last = position[position.length - 1];
+            checksum += aiPlayer.getGameMove(GridNumber.of(last / 3, last % 3)).hashCode();
+        }
+        return checksum;
+    }
+
+    @Test
+    void getGameMoveDoesNotAllocate() {
+        int[][] positions = recordPositions(7, NUM_GAMES);
+        GameState gameState = new GameState();
+        AIPlayer aiPlayer = new AIPlayer(gameState);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(positions, gameState, aiPlayer);
+        }
+        // Reading the counter allocates by itself, measure that once and subtract it
+        long overhead = -getAllocatedBytes() + getAllocatedBytes();
+        long minRoundAllocated = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long before = getAllocatedBytes();
+            runRound(positions, gameState, aiPlayer);
+            minRoundAllocated = Math.min(minRoundAllocated, Math.max(0, getAllocatedBytes() - before - overhead));
+        }
+        // The JIT can still allocate a few bytes in a round now and then, but a move
+        // decision that allocates would do so in every round
+        assertEquals(0, minRoundAllocated, "bytes allocated by the best round of " + positions.length + " moves");
+    }
+}
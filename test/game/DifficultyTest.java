@@ -0,0 +1,76 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The DifficultyTest class plays every AIPlayer.Difficulty below PERFECT as O and checks
+ * that its moves stay within the time budget of its level plus a small margin, and
+ * that the levels draw more games against perfect play the stronger they are.
+ */
+class DifficultyTest {
+    private static final long MARGIN_MILLIS = 5;
+    private static final AIPlayer.Difficulty[] LEVELS = {
+            AIPlayer.Difficulty.EASY, AIPlayer.Difficulty.MEDIUM, AIPlayer.Difficulty.HARD};
+
+    // Plays games of a level as O against an opponent and returns the number of draws,
+    // failing if more than one move in a hundred runs over the budget of the level, which
+    // leaves room for a garbage collection or a preempted thread
+    private static int playGames(GameState gameState, AIPlayer.Difficulty level, AIPlayer opponent, int numGames) {
+        AIPlayer player = new AIPlayer(gameState, AIPlayer.Mode.LINE_SEARCH);
+        player.setDifficulty(level);
+        player.setStrategy(new BudgetedStrategy(gameState, level, new Random(3)));
+        long budgetNanos = (level.getMaxMillis() + MARGIN_MILLIS) * 1_000_000;
+        int numMoves = 0;
+        int numOverBudget = 0;
+        int draws = 0;
+        for (int g = 0; g < numGames; g++) {
+            gameState.initGame();
+            GridNumber lastMove = GridNumber.getInvalidObject();
+            while (!gameState.getGameEnded()) {
+                if (gameState.getPlayerToMove() == Player.CIRCLE) {
+                    long start = System.nanoTime();
+                    lastMove = player.getGameMove(lastMove);
+                    numMoves++;
+                    numOverBudget += System.nanoTime() - start > budgetNanos ? 1 : 0;
+                } else {
+                    lastMove = opponent.getGameMove(lastMove);
+                }
+                gameState.setMove(lastMove);
+            }
+            if (gameState.getWinner() == Player.UNSET) {
+                draws++;
+            }
+        }
+        assertTrue(numOverBudget <= 1 + numMoves / 100,
+                numOverBudget + " of " + numMoves + " moves of " + level + " ran over budget");
+        return draws;
+    }
+
+    @Test
+    void strongerLevelsDrawMoreAgainstPerfectPlay() {
+        GameState gameState = new GameState();
+        AIPlayer perfect = new AIPlayer(gameState, AIPlayer.Mode.TABLE);
+        AIPlayer random = new AIPlayer(gameState, AIPlayer.Mode.RANDOM);
+        random.setStrategy(new RandomStrategy(gameState, new Random(1)));
+        int previousDraws = -1;
+        for (AIPlayer.Difficulty level : LEVELS) {
+            playGames(gameState, level, random, 300);
+            int draws = playGames(gameState, level, perfect, 300);
+            assertTrue(draws > previousDraws, level + " drew " + draws + " of 300 games against perfect play");
+            previousDraws = draws;
+        }
+    }
+
+    @Test
+    void movesStayWithinBudgetOnLargeBoard() {
+        GameState gameState = new GameState(15, 5);
+        AIPlayer lineSearch = new AIPlayer(gameState, AIPlayer.Mode.LINE_SEARCH);
+        for (AIPlayer.Difficulty level : LEVELS) {
+            playGames(gameState, level, lineSearch, 1);
+        }
+    }
+}
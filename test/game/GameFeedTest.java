@@ -0,0 +1,119 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The GameFeedTest class runs GameFeeds without JavaFX and checks their counters and
+ * events, the drop-oldest policy of MoveEventQueue, and that a spectator can apply a
+ * full queue of events within a 60 Hz frame.
+ */
+class GameFeedTest {
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+    private static final int NUM_BOARDS = 16;
+
+    // Runs a feed for millis, flat out if moveMillis is 0, and returns it closed
+    private static GameFeed runFeed(AIPlayer.Mode crossMode, AIPlayer.Mode circleMode, long moveMillis,
+                                    long millis, MoveEventQueue queue) throws InterruptedException {
+        GameFeed feed = new GameFeed(NUM_BOARDS, 2, crossMode, circleMode, 3, 3, 1, moveMillis, queue);
+        feed.start();
+        Thread.sleep(millis);
+        feed.close();
+        return feed;
+    }
+
+    @Test
+    void queueDropsTheOldestEvents() {
+        MoveEventQueue queue = new MoveEventQueue(4);
+        GameState gameState = new GameState();
+        for (int board = 0; board < 10; board++) {
+            queue.offer(MoveEvent.of(board, -1, gameState));
+        }
+        assertEquals(10, queue.getNumOffered());
+        assertEquals(6, queue.getNumDropped());
+        assertEquals(4, queue.size());
+        List<MoveEvent> events = new ArrayList<>();
+        assertEquals(4, queue.drainTo(events, 100));
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(6 + i, events.get(i).getBoard());
+        }
+    }
+
+    @Test
+    void perfectPlayFeedOnlyDraws() throws InterruptedException {
+        GameFeed feed = runFeed(AIPlayer.Mode.TABLE, AIPlayer.Mode.TABLE, 0, 200, new MoveEventQueue(16));
+        assertTrue(feed.getNumGames() > 0);
+        assertEquals(feed.getNumGames(), feed.getNumDraws());
+        assertEquals(0, feed.getNumWins(Player.CROSS));
+        assertEquals(0, feed.getNumWins(Player.CIRCLE));
+    }
+
+    @Test
+    void eventsFollowTheGamesOfEveryBoard() throws InterruptedException {
+        MoveEventQueue queue = new MoveEventQueue(1 << 16);
+        GameFeed feed = runFeed(AIPlayer.Mode.RANDOM, AIPlayer.Mode.RULES, 1, 500, queue);
+        assertEquals(0, queue.getNumDropped());
+        List<MoveEvent> events = new ArrayList<>();
+        queue.drainTo(events, Integer.MAX_VALUE);
+        assertEquals(queue.getNumOffered(), events.size());
+
+        // Replays the events per board: a new game is empty, a move fills exactly its cell
+        MoveEvent[] last = new MoveEvent[NUM_BOARDS];
+        int numMoves = 0;
+        int numEnded = 0;
+        for (MoveEvent event : events) {
+            MoveEvent previous = last[event.getBoard()];
+            for (int cell = 0; cell < event.getNumCells(); cell++) {
+                Player player = event.getOccupiedBy(cell);
+                if (event.getCell() < 0) {
+                    assertEquals(Player.UNSET, player);
+                } else if (cell == event.getCell()) {
+                    assertEquals(Player.UNSET, previous.getOccupiedBy(cell));
+                    assertTrue(player != Player.UNSET);
+                } else {
+                    assertEquals(previous.getOccupiedBy(cell), player);
+                }
+            }
+            if (event.getCell() >= 0) {
+                numMoves++;
+                numEnded += event.isEnded() ? 1 : 0;
+            }
+            last[event.getBoard()] = event;
+        }
+        assertEquals(feed.getNumMoves(), numMoves);
+        assertEquals(feed.getNumGames(), numEnded);
+        assertEquals(feed.getNumGames(), feed.getNumWins(Player.CROSS) + feed.getNumWins(Player.CIRCLE)
+                + feed.getNumDraws());
+    }
+
+    @Test
+    void fullQueueIsAppliedWithinAFrame() throws InterruptedException {
+        MoveEventQueue queue = new MoveEventQueue();
+        Player[][] shown = new Player[NUM_BOARDS][Bitboard.NUM_CELLS];
+        List<MoveEvent> batch = new ArrayList<>();
+        // The fastest of several rounds, so a garbage collection or a preempted thread
+        // does not count against the work of a frame
+        long minNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            runFeed(AIPlayer.Mode.RANDOM, AIPlayer.Mode.RULES, 0, 100, queue);
+            assertEquals(queue.getCapacity(), queue.size());
+            long start = System.nanoTime();
+            batch.clear();
+            queue.drainTo(batch, queue.getCapacity());
+            // Keeps the last state seen of every cell of every board, as BoardCanvas does
+            for (MoveEvent event : batch) {
+                Player[] cells = shown[event.getBoard()];
+                for (int cell = 0; cell < event.getNumCells(); cell++) {
+                    cells[cell] = event.getOccupiedBy(cell);
+                }
+            }
+            minNanos = Math.min(minNanos, System.nanoTime() - start);
+        }
+        assertTrue(minNanos < FRAME_NANOS, "applying a full queue took " + minNanos / 1e6 + " ms");
+    }
+}
@@ -0,0 +1,141 @@
+package game;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The GameServerTest class plays games against a GameServer over localhost, on several
+ * connections at once, and checks every response of the protocol against the board the
+ * client keeps.
+ */
+class GameServerTest {
+    private static final int NUM_GAMES = 50;
+
+    private GameServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new GameServer(0, SessionManager.DEFAULT_MOVE_MILLIS, 2);
+        Thread thread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @AfterEach
+    void closeServer() throws IOException {
+        server.close();
+    }
+
+    // Sends one command and returns the response line
+    private static String call(BufferedReader in, Writer out, String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+        return in.readLine();
+    }
+
+    // Plays random games on one connection, checking every response, and returns the games played
+    private int playGames(long seed) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            Random random = new Random(seed);
+            String created = call(in, out, "NEW");
+            assertTrue(created.startsWith("OK "), created);
+            String id = created.substring(3);
+            char[] board = new char[Bitboard.NUM_CELLS];
+            for (int g = 0; g < NUM_GAMES; g++) {
+                Arrays.fill(board, '.');
+                assertEquals("OK PLAYING", call(in, out, "RESET " + id));
+                String status = "PLAYING";
+                while (status.equals("PLAYING")) {
+                    int cell;
+                    do {
+                        cell = random.nextInt(Bitboard.NUM_CELLS);
+                    } while (board[cell] != '.');
+                    board[cell] = 'X';
+                    String[] response = call(in, out, "MOVE " + id + " " + cell / 3 + " " + cell % 3).split(" ");
+                    assertEquals("OK", response[0]);
+                    if (!response[1].equals("-")) {
+                        int aiCell = Integer.parseInt(response[1]) * 3 + Integer.parseInt(response[2]);
+                        assertEquals('.', board[aiCell], "AI move " + aiCell);
+                        board[aiCell] = 'O';
+                    }
+                    status = response[3];
+                    assertEquals("OK " + new String(board), call(in, out, "BOARD " + id));
+                }
+                // The standard board is answered with perfect play
+                assertNotEquals("X_WON", status);
+                assertTrue(call(in, out, "MOVE " + id + " 0 0").startsWith("ERR "));
+            }
+            assertEquals("OK", call(in, out, "CLOSE " + id));
+            assertTrue(call(in, out, "BOARD " + id).startsWith("ERR "));
+            return NUM_GAMES;
+        }
+    }
+
+    @Test
+    void connectionsPlayGamesAtOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int c = 0; c < 4; c++) {
+                long seed = c;
+                futures.add(executor.submit(() -> playGames(seed)));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(NUM_GAMES, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, server.getSessions().getNumSessions());
+    }
+
+    @Test
+    void undoAndRedoTakeBackAndReplayAMovePair() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            String id = call(in, out, "NEW 3 3").substring(3);
+            assertTrue(call(in, out, "MOVE " + id + " 1 1").endsWith(" PLAYING"));
+            String board = call(in, out, "BOARD " + id);
+            assertEquals("OK PLAYING", call(in, out, "UNDO " + id));
+            assertEquals("OK .........", call(in, out, "BOARD " + id));
+            assertEquals("OK PLAYING", call(in, out, "REDO " + id));
+            assertEquals(board, call(in, out, "BOARD " + id));
+            assertTrue(call(in, out, "MOVE " + id + " 1 1").startsWith("ERR "));
+            assertTrue(call(in, out, "MOVE " + id + " 3 0").startsWith("ERR "));
+            assertTrue(call(in, out, "JUMP " + id).startsWith("ERR "));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The GameStateTest class replays random games on the bitboard GameState and checks
+ * every placement against a plain array of cells.
+ */
+class GameStateTest {
+    private static final int NUM_GAMES = 4096;
+
+    // Returns the player holding a whole row, column or diagonal of cells, or UNSET
+    private static Player getReferenceWinner(Player[] cells) {
+        for (int line : Bitboard.LINE_MASKS) {
+            Player first = cells[Integer.numberOfTrailingZeros(line)];
+            boolean isWon = first != Player.UNSET;
+            for (int cell = 0; cell < Bitboard.NUM_CELLS; cell++) {
+                if ((line & (1 << cell)) != 0 && cells[cell] != first) {
+                    isWon = false;
+                }
+            }
+            if (isWon) {
+                return first;
+            }
+        }
+        return Player.UNSET;
+    }
+
+    @Test
+    void matchesArrayOccupancyOnRandomGames() {
+        Random random = new Random(42);
+        GameState gameState = new GameState();
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            Player[] cells = new Player[Bitboard.NUM_CELLS];
+            Arrays.fill(cells, Player.UNSET);
+            Player player = Player.CROSS;
+            for (int numFilled = 0; numFilled < Bitboard.NUM_CELLS; numFilled++) {
+                int cell;
+                do {
+                    cell = random.nextInt(Bitboard.NUM_CELLS);
+                } while (cells[cell] != Player.UNSET);
+                cells[cell] = player;
+                gameState.setOccupied(GridNumber.of(cell / 3, cell % 3), player);
+
+                Player winner = getReferenceWinner(cells);
+                assertEquals(winner, gameState.getWinner(), "winner in game " + g);
+                assertEquals(numFilled == Bitboard.NUM_CELLS - 1, gameState.getIsFull(), "full in game " + g);
+                for (int i = 0; i < Bitboard.NUM_CELLS; i++) {
+                    assertEquals(cells[i], gameState.getOccupiedBy(i), "cell " + i + " in game " + g);
+                }
+                if (winner != Player.UNSET) {
+                    break;
+                }
+                player = (player == Player.CROSS) ? Player.CIRCLE : Player.CROSS;
+            }
+        }
+    }
+}
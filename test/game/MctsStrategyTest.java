@@ -0,0 +1,49 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The MctsStrategyTest class plays the Monte Carlo tree search against the rule cascade
+ * on the standard board and checks that it never loses, playing either side.
+ */
+class MctsStrategyTest {
+    private static final int NUM_GAMES = 20;
+
+    // Plays games of MCTS against RULES and returns the number MCTS lost
+    private static int playGames(Player mctsPlayer) {
+        GameState gameState = new GameState();
+        MctsStrategy mcts = new MctsStrategy(gameState, 1, MctsStrategy.getDefaultIterations(gameState.getGeometry()),
+                MctsStrategy.DEFAULT_MAX_MILLIS, 7);
+        AIPlayer rules = new AIPlayer(gameState, AIPlayer.Mode.RULES);
+        Player rulesPlayer = mctsPlayer == Player.CROSS ? Player.CIRCLE : Player.CROSS;
+        int losses = 0;
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            GridNumber lastMove = GridNumber.getInvalidObject();
+            while (!gameState.getGameEnded()) {
+                if (gameState.getPlayerToMove() == mctsPlayer) {
+                    lastMove = mcts.getMove(lastMove);
+                } else {
+                    lastMove = rules.getGameMove(lastMove);
+                }
+                gameState.setMove(lastMove);
+            }
+            if (gameState.getWinner() == rulesPlayer) {
+                losses++;
+            }
+        }
+        return losses;
+    }
+
+    @Test
+    void neverLosesToRulesAsCross() {
+        assertEquals(0, playGames(Player.CROSS));
+    }
+
+    @Test
+    void neverLosesToRulesAsCircle() {
+        assertEquals(0, playGames(Player.CIRCLE));
+    }
+}
@@ -0,0 +1,61 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The PerftTest class counts every game of the standard board from the empty position
+ * and checks the known totals ply by ply, with the tree split at several depths.
+ */
+class PerftTest {
+    private static final long[] NODES = {1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872};
+    private static final long[] CROSS_WINS = {0, 0, 0, 0, 0, 1440, 0, 47952, 0, 81792};
+    private static final long[] CIRCLE_WINS = {0, 0, 0, 0, 0, 0, 5328, 0, 72576, 0};
+    private static final long[] DRAWS = {0, 0, 0, 0, 0, 0, 0, 0, 0, 46080};
+
+    private static void checkStandardBoard(Perft.Result result) {
+        for (int ply = 0; ply <= Bitboard.NUM_CELLS; ply++) {
+            assertEquals(NODES[ply], result.getNumNodes(ply), "nodes at ply " + ply);
+            assertEquals(CROSS_WINS[ply], result.getNumWins(Player.CROSS, ply), "X wins at ply " + ply);
+            assertEquals(CIRCLE_WINS[ply], result.getNumWins(Player.CIRCLE, ply), "O wins at ply " + ply);
+            assertEquals(DRAWS[ply], result.getNumDraws(ply), "draws at ply " + ply);
+        }
+        assertEquals(549946, result.getNumNodes());
+        assertEquals(255168, result.getNumGames());
+        assertEquals(131184, result.getNumWins(Player.CROSS));
+        assertEquals(77904, result.getNumWins(Player.CIRCLE));
+        assertEquals(46080, result.getNumDraws());
+    }
+
+    @Test
+    void standardBoardHasKnownTotals() {
+        checkStandardBoard(new Perft().run(new GameState(), Bitboard.NUM_CELLS));
+    }
+
+    @Test
+    void splitDepthDoesNotChangeTotals() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (int splitDepth = 0; splitDepth <= 4; splitDepth++) {
+                checkStandardBoard(new Perft(pool, splitDepth).run(new GameState(), Bitboard.NUM_CELLS));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void runDoesNotChangeRoot() {
+        GameState root = new GameState();
+        root.setMove(4);
+        Perft.Result result = new Perft().run(root, 3);
+        assertEquals(1, root.getNumOccupied());
+        assertEquals(1, result.getNumNodes(0));
+        assertEquals(8, result.getNumNodes(1));
+        assertEquals(56, result.getNumNodes(2));
+        assertEquals(336, result.getNumNodes(3));
+    }
+}
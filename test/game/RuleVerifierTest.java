@@ -0,0 +1,40 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The RuleVerifierTest class runs the RuleVerifier on both sides of the standard board:
+ * the perfect-play modes must never lose value, the rule cascade must never lose in
+ * play, and the solver must agree with the PerfectPlayTable.
+ */
+class RuleVerifierTest {
+    private static final RetrogradeSolver SOLVER = RetrogradeSolver.solve();
+    private static final Player[] SIDES = {Player.CROSS, Player.CIRCLE};
+
+    private static RuleVerifier verify(AIPlayer.Mode mode, Player aiPlayer) {
+        RuleVerifier verifier = new RuleVerifier(mode, aiPlayer, SOLVER);
+        verifier.verify();
+        assertTrue(verifier.getNumChecked() > 0, mode + " as " + aiPlayer + " checked no positions");
+        assertEquals(0, verifier.getNumTableMismatches(), "solver and table disagree");
+        return verifier;
+    }
+
+    @Test
+    void perfectPlayNeverLosesValue() {
+        for (AIPlayer.Mode mode : new AIPlayer.Mode[] {AIPlayer.Mode.TABLE, AIPlayer.Mode.NEGAMAX}) {
+            for (Player side : SIDES) {
+                assertEquals(0, verify(mode, side).getDeviations().size(), mode + " as " + side);
+            }
+        }
+    }
+
+    @Test
+    void rulesNeverLoseInPlay() {
+        for (Player side : SIDES) {
+            assertEquals(0, verify(AIPlayer.Mode.RULES, side).getNumLosing(true), "RULES as " + side);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * The SessionManagerTest class fills a SessionManager with random parts of games, some
+ * with undone moves to redo, evicts them and checks that the next command on each
+ * session sees the same game, undo and redo history included.
+ */
+class SessionManagerTest {
+    private static final int NUM_SESSIONS = 1000;
+    private static final long HOUR_MILLIS = 3600000;
+
+    @TempDir
+    Path tempDir;
+
+    // Creates the sessions, evicts them and checks that each decodes to the same game
+    private void checkEviction(int size, int winLength, long spillMillis, int[] expectedByState)
+            throws IOException {
+        Random random = new Random(1);
+        GameState scratch = new GameState(size, winLength);
+        int numCells = scratch.getGeometry().getNumCells();
+        int[] cells = new int[numCells];
+        long[] ids = new long[NUM_SESSIONS];
+        byte[][] expected = new byte[NUM_SESSIONS][];
+        try (SessionManager manager = new SessionManager()) {
+            manager.setEviction(0, spillMillis, tempDir.resolve("sessions.spill"));
+            for (int i = 0; i < NUM_SESSIONS; i++) {
+                scratch.initGame();
+                int numMoves = random.nextInt(numCells);
+                for (int m = 0; m < numMoves && !scratch.getGameEnded(); m++) {
+                    int cell;
+                    do {
+                        cell = random.nextInt(numCells);
+                    } while (scratch.isOccupied(cell));
+                    scratch.setMove(cell);
+                }
+                for (int u = random.nextInt(3); u > 0; u--) {
+                    scratch.undo();
+                }
+                expected[i] = SessionCodec.encode(scratch);
+                int numRecorded = scratch.getRecordedMoves(cells);
+                int numUndone = scratch.getNumUndone();
+                ids[i] = manager.create(size, winLength);
+                manager.withGame(ids[i], gameState -> {
+                    for (int m = 0; m < numRecorded; m++) {
+                        gameState.setMove(cells[m]);
+                    }
+                    for (int u = 0; u < numUndone; u++) {
+                        gameState.undo();
+                    }
+                    return null;
+                });
+            }
+            manager.evictIdle();
+            assertArrayEquals(expectedByState, manager.getNumSessionsByState());
+            for (int i = 0; i < NUM_SESSIONS; i++) {
+                assertArrayEquals(expected[i], manager.withGame(ids[i], SessionCodec::encode), "session " + i);
+            }
+            assertArrayEquals(new int[] {NUM_SESSIONS, 0, 0}, manager.getNumSessionsByState());
+        }
+    }
+
+    @Test
+    void compactedSessionsDecodeToTheSameGames() throws IOException {
+        checkEviction(3, 3, HOUR_MILLIS, new int[] {0, NUM_SESSIONS, 0});
+        checkEviction(15, 5, HOUR_MILLIS, new int[] {0, NUM_SESSIONS, 0});
+    }
+
+    @Test
+    void spilledSessionsDecodeToTheSameGames() throws IOException {
+        checkEviction(3, 3, 0, new int[] {0, 0, NUM_SESSIONS});
+        checkEviction(15, 5, 0, new int[] {0, 0, NUM_SESSIONS});
+    }
+}
@@ -0,0 +1,81 @@
+package game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The TranspositionTableTest class caches perfect-play evaluations in a
+ * TranspositionTable, keyed by the raw and by the canonical position, and checks what
+ * comes back out.
+ */
+class TranspositionTableTest {
+    private static final int NUM_GAMES = 20000;
+
+    // Plays random games, caching every position, and checks every hit against the table
+    private static TranspositionTable playRandomGames(boolean useSymmetry) {
+        PerfectPlayTable perfectPlay = PerfectPlayTable.getInstance();
+        TranspositionTable table = new TranspositionTable(1 << 13, useSymmetry);
+        GameState gameState = new GameState();
+        Random random = new Random(11);
+        for (int g = 0; g < NUM_GAMES; g++) {
+            gameState.initGame();
+            while (!gameState.getGameEnded()) {
+                int index = gameState.getPositionIndex();
+                int entry = table.probe(gameState);
+                if (entry == TranspositionTable.MISS) {
+                    table.store(gameState, perfectPlay.getMove(index), perfectPlay.getValue(index));
+                } else {
+                    int move = TranspositionTable.getMove(entry);
+                    assertEquals(perfectPlay.getValue(index), TranspositionTable.getValue(entry),
+                            "cached value at index " + index);
+                    assertTrue((gameState.getMask(Player.UNSET) & (1 << move)) != 0,
+                            "cached move " + move + " at index " + index);
+                }
+                int cell;
+                do {
+                    cell = random.nextInt(Bitboard.NUM_CELLS);
+                } while (gameState.isOccupied(cell));
+                gameState.setMove(cell);
+            }
+        }
+        return table;
+    }
+
+    @Test
+    void cachedEntriesAgreeWithPerfectPlay() {
+        TranspositionTable raw = playRandomGames(false);
+        TranspositionTable canonical = playRandomGames(true);
+        assertTrue(canonical.getHitRate() > raw.getHitRate(), "canonical keys hit more often");
+        assertTrue(canonical.getNumEntries() < raw.getNumEntries(), "canonical keys need fewer entries");
+    }
+
+    @Test
+    void largeTableHoldsEveryPositionWithoutCollisions() {
+        PerfectPlayTable perfectPlay = PerfectPlayTable.getInstance();
+        TranspositionTable raw = new TranspositionTable(1 << 17, false);
+        TranspositionTable canonical = new TranspositionTable(1 << 17, true);
+        for (int index = 0; index < Bitboard.NUM_INDICES; index++) {
+            if (perfectPlay.isReachable(index)) {
+                int crossMask = Bitboard.getMask(index, Player.CROSS);
+                int circleMask = Bitboard.getMask(index, Player.CIRCLE);
+                raw.store(crossMask, circleMask, perfectPlay.getMove(index), perfectPlay.getValue(index));
+                canonical.store(crossMask, circleMask, perfectPlay.getMove(index), perfectPlay.getValue(index));
+            }
+        }
+        assertEquals(perfectPlay.getNumPositions(), raw.getNumEntries());
+        assertEquals(765, canonical.getNumEntries());
+        for (int index = 0; index < Bitboard.NUM_INDICES; index++) {
+            if (perfectPlay.isReachable(index)) {
+                int crossMask = Bitboard.getMask(index, Player.CROSS);
+                int circleMask = Bitboard.getMask(index, Player.CIRCLE);
+                assertNotEquals(TranspositionTable.MISS, raw.probe(crossMask, circleMask), "index " + index);
+                assertNotEquals(TranspositionTable.MISS, canonical.probe(crossMask, circleMask), "index " + index);
+            }
+        }
+    }
+}